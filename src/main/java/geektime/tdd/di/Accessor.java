@@ -0,0 +1,18 @@
+package geektime.tdd.di;
+
+import jakarta.inject.Provider;
+
+public final class Accessor<T> implements Provider<T> {
+    private final ContextConfig.LiveContext context;
+    private final int id;
+
+    Accessor(ContextConfig.LiveContext context, int id) {
+        this.context = context;
+        this.id = id;
+    }
+
+    @Override
+    public T get() {
+        return (T) context.resolve(id);
+    }
+}
@@ -0,0 +1,131 @@
+package geektime.tdd.di;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.*;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Arrays.stream;
+import static java.util.stream.Stream.concat;
+
+class AssistedProvider<F, T> implements ContextConfig.Provider<F> {
+    private Class<F> factory;
+    private Constructor<T> constructor;
+    private ComponentRef<?>[] required;
+    private MembersInjector<T> members;
+    private ComponentRef<?>[] slots;
+    private MethodHandle invoker;
+
+    public AssistedProvider(Class<F> factory, Class<T> implementation) {
+        if (!factory.isInterface() || Modifier.isAbstract(implementation.getModifiers()))
+            throw new IllegalComponentException();
+        this.factory = factory;
+        InjectionProvider.Injectable<Constructor<T>> injectable = InjectionProvider.getConstructor(implementation);
+        this.constructor = injectable.element();
+        this.members = new MembersInjector<>(implementation);
+
+        Parameter[] parameters = constructor.getParameters();
+        this.required = injectable.required().clone();
+        List<Class<?>> assisted = new ArrayList<>();
+        for (int i = 0; i < parameters.length; i++)
+            if (parameters[i].isAnnotationPresent(Assisted.class)) {
+                assisted.add(wrap(parameters[i].getType()));
+                required[i] = null;
+            }
+
+        for (Method method : factory.getMethods())
+            if (Modifier.isAbstract(method.getModifiers()) && (!method.getReturnType().isAssignableFrom(implementation)
+                    || !stream(method.getParameterTypes()).map(AssistedProvider::wrap).toList().equals(assisted)))
+                throw new IllegalComponentException();
+        compile(Map.of());
+    }
+
+    private AssistedProvider(AssistedProvider<F, T> provider, Map<Component, Object> constants) {
+        this.factory = provider.factory;
+        this.constructor = provider.constructor;
+        this.required = provider.required;
+        this.members = provider.members.inline(constants);
+        compile(constants);
+    }
+
+    @Override
+    public AssistedProvider<F, T> inline(Map<Component, Object> constants) {
+        if (!InjectionProvider.Injectable.inlines(required, constants) && !members.inlines(constants)) return this;
+        return new AssistedProvider<>(this, constants);
+    }
+
+    private void compile(Map<Component, Object> constants) {
+        MethodHandle handle = InjectionProvider.Injectable.unreflect(constructor);
+        LinkedList<ComponentRef<?>> slots = new LinkedList<>();
+        for (int i = required.length - 1; i >= 0; i--) {
+            Object constant = required[i] == null || required[i].isContainer() ? null : constants.get(required[i].component());
+            if (constant != null) handle = MethodHandles.insertArguments(handle, i, constant);
+            else slots.addFirst(required[i]);
+        }
+        this.slots = slots.toArray(ComponentRef<?>[]::new);
+        this.invoker = handle.asSpreader(Object[].class, this.slots.length).asType(methodType(Object.class, Object[].class));
+    }
+
+    @Override
+    public F get(Context context) {
+        return proxy(context);
+    }
+
+    @Override
+    public ContextConfig.Provider<F> bind(Context context) {
+        return new Factory(proxy(context));
+    }
+
+    private F proxy(Context context) {
+        return factory.cast(Proxy.newProxyInstance(factory.getClassLoader(), new Class<?>[]{factory}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> factory.getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+            };
+            if (method.isDefault()) return InvocationHandler.invokeDefault(proxy, method, args);
+            return create(args, context);
+        }));
+    }
+
+    private T create(Object[] assisted, Context context) throws Throwable {
+        Object[] arguments = new Object[slots.length];
+        for (int i = 0, next = 0; i < slots.length; i++)
+            arguments[i] = slots[i] == null ? assisted[next++] : context.get(slots[i]).get();
+        return members.inject((T) (Object) invoker.invokeExact(arguments), context);
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return concat(stream(required).filter(Objects::nonNull), members.getDependencies().stream()).toList();
+    }
+
+    private class Factory implements ContextConfig.Provider<F> {
+        private final F proxy;
+
+        Factory(F proxy) {
+            this.proxy = proxy;
+        }
+
+        @Override
+        public F get(Context context) {
+            return proxy;
+        }
+
+        @Override
+        public ContextConfig.Provider<F> bind(Context context) {
+            return AssistedProvider.this.bind(context);
+        }
+
+        @Override
+        public List<ComponentRef<?>> getDependencies() {
+            return AssistedProvider.this.getDependencies();
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
@@ -0,0 +1,34 @@
+package geektime.tdd.di;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Optional;
+
+class CachedProvider<T> implements ContextConfig.Provider<T> {
+    private final ContextConfig.Provider<T> provider;
+    private final ComponentCache cache;
+
+    public CachedProvider(ContextConfig.Provider<T> provider, ComponentCache cache) {
+        this.provider = provider;
+        this.cache = cache;
+    }
+
+    @Override
+    public T get(Context context) {
+        return (T) cache.get(this, () -> provider.get(context));
+    }
+
+    public Optional<Object> evict() {
+        return cache.remove(this);
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return provider.getDependencies();
+    }
+
+    @Override
+    public Optional<Annotation> getScope() {
+        return provider.getScope();
+    }
+}
@@ -1,6 +1,18 @@
 package geektime.tdd.di;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Comparator;
 
-record Component(Class<?> type, Annotation qualifier) {
+record Component(Type type, Annotation qualifier) {
+    static final Comparator<Component> ORDER = Comparator.comparing((Component c) -> c.type().getTypeName())
+            .thenComparing(c -> String.valueOf(c.qualifier()));
+
+    Component {
+        if (type != null) type = Types.canonical(type);
+    }
+
+    Class<?> rawType() {
+        return Types.raw(type);
+    }
 }
@@ -0,0 +1,145 @@
+package geektime.tdd.di;
+
+import java.lang.ref.SoftReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+class ComponentCache {
+    private final int maximumSize;
+    private final long expireAfterAccess;
+    private final boolean softValues;
+    private final Consumer<Object> evicted;
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final Queue<Entry> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ReentrantLock eviction = new ReentrantLock();
+
+    public ComponentCache(int maximumSize, Duration expireAfterAccess, boolean softValues, Consumer<Object> evicted) {
+        this.maximumSize = maximumSize;
+        this.expireAfterAccess = expireAfterAccess == null ? Long.MAX_VALUE : expireAfterAccess.toNanos();
+        this.softValues = softValues;
+        this.evicted = evicted;
+    }
+
+    public Object get(Object key, Supplier<Object> loader) {
+        Object value = lookup(key);
+        if (value != null) return value;
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) return await(inFlight);
+        try {
+            value = lookup(key);
+            if (value == null) {
+                value = loader.get();
+                store(key, value);
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    public Optional<Object> remove(Object key) {
+        Entry entry = entries.remove(key);
+        return entry == null ? Optional.empty() : Optional.ofNullable(entry.value());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Object lookup(Object key) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        long now = System.nanoTime();
+        Object value = entry.value();
+        if (now - entry.accessed > expireAfterAccess || value == null) {
+            if (entries.remove(key, entry) && value != null) evicted.accept(value);
+            return null;
+        }
+        entry.accessed = now;
+        if (!entry.referenced) entry.referenced = true;
+        return value;
+    }
+
+    private void store(Object key, Object value) {
+        Entry entry = new Entry(key, softValues ? new SoftReference<>(value) : value, System.nanoTime());
+        entries.put(key, entry);
+        clock.add(entry);
+        queued.incrementAndGet();
+        if (overflowing()) evict();
+    }
+
+    private boolean overflowing() {
+        return entries.size() > maximumSize || queued.get() > 2L * maximumSize;
+    }
+
+    private void evict() {
+        if (!eviction.tryLock()) return;
+        List<Object> victims = new ArrayList<>();
+        try {
+            while (overflowing()) {
+                Entry entry = clock.poll();
+                if (entry == null) break;
+                queued.decrementAndGet();
+                if (entries.get(entry.key) != entry) continue;
+                if (entries.size() <= maximumSize || entry.referenced) {
+                    if (entries.size() > maximumSize) entry.referenced = false;
+                    clock.add(entry);
+                    queued.incrementAndGet();
+                } else if (entries.remove(entry.key, entry)) {
+                    Object value = entry.value();
+                    if (value != null) victims.add(value);
+                }
+            }
+        } finally {
+            eviction.unlock();
+        }
+        victims.forEach(evicted);
+    }
+
+    private static Object await(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static class Entry {
+        private final Object key;
+        private final Object value;
+        private volatile long accessed;
+        private volatile boolean referenced;
+
+        Entry(Object key, Object value, long accessed) {
+            this.key = key;
+            this.value = value;
+            this.accessed = accessed;
+        }
+
+        Object value() {
+            return value instanceof SoftReference<?> reference ? reference.get() : value;
+        }
+    }
+}
@@ -33,17 +33,26 @@ public class ComponentRef<T> {
         return new ComponentRef(component);
     }
 
+    static <T> ComponentRef<T> lazy(Type type, Annotation qualifier) {
+        ComponentRef<T> ref = new ComponentRef(type, qualifier);
+        if (ref.isContainer() || !ref.getComponentType().isInterface())
+            throw new IllegalComponentException();
+        ref.container = Lazy.class;
+        return ref;
+    }
+
     protected ComponentRef() {
         Type type = ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
         init(type, null);
     }
 
     private void init(Type type, Annotation qualifier) {
-        if (type instanceof ParameterizedType container) {
+        if (type instanceof ParameterizedType container
+                && (container.getRawType() == jakarta.inject.Provider.class || container.getRawType() == Lease.class)) {
             this.container = container.getRawType();
-            this.component = new Component((Class<T>) container.getActualTypeArguments()[0], qualifier);
+            this.component = new Component(container.getActualTypeArguments()[0], qualifier);
         } else {
-            this.component = new Component((Class<T>) type, qualifier);
+            this.component = new Component(type, qualifier);
         }
     }
 
@@ -52,7 +61,7 @@ public class ComponentRef<T> {
     }
 
     public Class<?> getComponentType() {
-        return component.type();
+        return component.rawType();
     }
 
     public Component component() {
@@ -0,0 +1,243 @@
+package geektime.tdd.di;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+class ComponentTable {
+    private final Component[] components;
+    private final ContextConfig.Provider<?>[] providers;
+    private final Map<Component, Integer> ids;
+    private final int[] offsets;
+    private int[] edges;
+    private final BitSet containers;
+    private final BitSet leases;
+    private int[] dependentOffsets;
+    private int[] dependentIds;
+
+    public ComponentTable(Map<Component, ? extends ContextConfig.Provider<?>> providers, boolean parallel) {
+        this(providers.keySet().stream().sorted(Component.ORDER).toArray(Component[]::new), new HashMap<>(providers.size() * 2));
+        for (int id = 0; id < components.length; id++) {
+            ids.put(components[id], id);
+            this.providers[id] = providers.get(components[id]);
+        }
+        IntStream range = IntStream.range(0, components.length);
+        pack((parallel ? range.parallel() : range).mapToObj(this::row).toArray(int[][]::new));
+    }
+
+    private ComponentTable(Component[] components, Map<Component, Integer> ids) {
+        this.components = components;
+        this.providers = new ContextConfig.Provider<?>[components.length];
+        this.ids = ids;
+        this.offsets = new int[components.length + 1];
+        this.containers = new BitSet();
+        this.leases = new BitSet();
+    }
+
+    public ComponentTable with(Map<Component, ? extends ContextConfig.Provider<?>> changes) {
+        Map<Component, Integer> ids = new HashMap<>(this.ids);
+        List<Component> added = changes.keySet().stream().filter(c -> !ids.containsKey(c)).sorted(Component.ORDER).toList();
+        Component[] components = Arrays.copyOf(this.components, this.components.length + added.size());
+        for (Component component : added) {
+            ids.put(component, ids.size());
+            components[ids.size() - 1] = component;
+        }
+        ComponentTable table = new ComponentTable(components, ids);
+        System.arraycopy(providers, 0, table.providers, 0, providers.length);
+        changes.forEach((component, provider) -> table.providers[ids.get(component)] = provider);
+
+        int[][] rows = new int[components.length][];
+        for (int id = 0; id < components.length; id++)
+            rows[id] = changes.containsKey(components[id]) || id >= size() || hasMissing(id) ? table.row(id) : copy(id);
+        table.pack(rows);
+        return table;
+    }
+
+    private int[] row(int id) {
+        List<ComponentRef<?>> dependencies = providers[id].getDependencies();
+        int[] row = new int[dependencies.size() * 2];
+        for (int i = 0; i < dependencies.size(); i++) {
+            ComponentRef<?> ref = dependencies.get(i);
+            row[i * 2] = id(ref.component());
+            row[i * 2 + 1] = !ref.isContainer() ? 0 : ref.getContainer() == Lease.class ? 2 : 1;
+        }
+        return row;
+    }
+
+    private int[] copy(int id) {
+        int[] row = new int[(offsets[id + 1] - offsets[id]) * 2];
+        for (int edge = offsets[id], i = 0; edge < offsets[id + 1]; edge++, i += 2) {
+            row[i] = edges[edge];
+            row[i + 1] = containers.get(edge) ? 1 : leases.get(edge) ? 2 : 0;
+        }
+        return row;
+    }
+
+    private void pack(int[][] rows) {
+        for (int id = 0; id < components.length; id++) offsets[id + 1] = offsets[id] + rows[id].length / 2;
+        this.edges = new int[offsets[components.length]];
+        for (int id = 0; id < components.length; id++)
+            for (int i = 0; i < rows[id].length; i += 2) {
+                edges[offsets[id] + i / 2] = rows[id][i];
+                if (rows[id][i + 1] == 1) containers.set(offsets[id] + i / 2);
+                if (rows[id][i + 1] == 2) leases.set(offsets[id] + i / 2);
+            }
+        this.dependentOffsets = new int[components.length + 1];
+        for (int edge = 0; edge < edges.length; edge++)
+            if (isConstruction(edge)) dependentOffsets[edges[edge] + 1]++;
+        for (int id = 0; id < components.length; id++) dependentOffsets[id + 1] += dependentOffsets[id];
+        this.dependentIds = new int[dependentOffsets[components.length]];
+        int[] filled = Arrays.copyOf(dependentOffsets, components.length);
+        for (int id = 0; id < components.length; id++)
+            for (int edge = offsets[id]; edge < offsets[id + 1]; edge++)
+                if (isConstruction(edge)) dependentIds[filled[edges[edge]]++] = id;
+    }
+
+    public int size() {
+        return components.length;
+    }
+
+    public int id(Component component) {
+        Integer id = ids.get(component);
+        return id == null ? -1 : id;
+    }
+
+    public Component component(int id) {
+        return components[id];
+    }
+
+    public ContextConfig.Provider<?> provider(int id) {
+        return providers[id];
+    }
+
+    public int start(int id) {
+        return offsets[id];
+    }
+
+    public int end(int id) {
+        return offsets[id + 1];
+    }
+
+    public int target(int edge) {
+        return edges[edge];
+    }
+
+    public boolean isConstruction(int edge) {
+        return edges[edge] >= 0 && !containers.get(edge);
+    }
+
+    public boolean isLease(int edge) {
+        return leases.get(edge);
+    }
+
+    public int dependentStart(int id) {
+        return dependentOffsets[id];
+    }
+
+    public int dependentEnd(int id) {
+        return dependentOffsets[id + 1];
+    }
+
+    public int dependent(int index) {
+        return dependentIds[index];
+    }
+
+    public void checkMissing(boolean parallel) {
+        IntStream range = IntStream.range(0, components.length);
+        checkMissing(parallel ? range.parallel() : range);
+    }
+
+    public void checkMissing(IntStream ids) {
+        ids.filter(this::hasMissing).min().ifPresent(id -> {
+            ComponentRef<?> missing = providers[id].getDependencies().stream().filter(ref -> id(ref.component()) < 0).findFirst().get();
+            throw new DependencyNotFoundException(components[id], missing.component());
+        });
+    }
+
+    public void checkCycles() {
+        order();
+    }
+
+    public void checkCycles(int... roots) {
+        order(roots);
+    }
+
+    public BitSet dependents(BitSet changed) {
+        BitSet affected = (BitSet) changed.clone();
+        int[] pending = changed.stream().toArray();
+        int size = pending.length;
+        while (size > 0) {
+            int id = pending[--size];
+            for (int i = dependentOffsets[id]; i < dependentOffsets[id + 1]; i++) {
+                int dependent = dependentIds[i];
+                if (affected.get(dependent)) continue;
+                affected.set(dependent);
+                if (size == pending.length) pending = Arrays.copyOf(pending, size * 2 + 1);
+                pending[size++] = dependent;
+            }
+        }
+        return affected;
+    }
+
+    private boolean hasMissing(int id) {
+        for (int edge = offsets[id]; edge < offsets[id + 1]; edge++) if (edges[edge] < 0) return true;
+        return false;
+    }
+
+    public int[] order() {
+        return order(IntStream.range(0, components.length).toArray());
+    }
+
+    public int[] order(int... roots) {
+        return order(true, roots);
+    }
+
+    public int[] orderIgnoringCycles() {
+        return order(false, IntStream.range(0, components.length).toArray());
+    }
+
+    private int[] order(boolean strict, int... roots) {
+        int[] order = new int[components.length];
+        int ordered = 0;
+        byte[] state = new byte[components.length];
+        int[] path = new int[components.length];
+        int[] next = new int[components.length];
+        for (int root : roots) {
+            if (state[root] != 0) continue;
+            int depth = 0;
+            path[0] = root;
+            next[0] = offsets[root];
+            state[root] = 1;
+            while (depth >= 0) {
+                int current = path[depth];
+                if (next[depth] < offsets[current + 1]) {
+                    int edge = next[depth]++;
+                    int dependency = edges[edge];
+                    if (dependency < 0 || containers.get(edge)) continue;
+                    if (state[dependency] == 1) {
+                        if (strict) throw new CyclicDependenciesFound(cycle(path, depth, dependency));
+                        continue;
+                    }
+                    if (state[dependency] == 0) {
+                        state[dependency] = 1;
+                        path[++depth] = dependency;
+                        next[depth] = offsets[dependency];
+                    }
+                } else {
+                    state[current] = 2;
+                    order[ordered++] = current;
+                    depth--;
+                }
+            }
+        }
+        return ordered == order.length ? order : Arrays.copyOf(order, ordered);
+    }
+
+    private List<Component> cycle(int[] path, int depth, int start) {
+        List<Component> cycle = new ArrayList<>();
+        for (int i = depth; i >= 0; i--) {
+            cycle.add(0, components[path[i]]);
+            if (path[i] == start) break;
+        }
+        return cycle;
+    }
+}
@@ -0,0 +1,16 @@
+package geektime.tdd.di;
+
+import java.util.Collection;
+import java.util.List;
+
+public class ConflictingBindingsFound extends RuntimeException {
+    private final List<Component> components;
+
+    public ConflictingBindingsFound(Collection<Component> conflicts) {
+        components = conflicts.stream().sorted(Component.ORDER).toList();
+    }
+
+    public List<Component> getComponents() {
+        return components;
+    }
+}
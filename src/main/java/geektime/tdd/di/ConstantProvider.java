@@ -0,0 +1,8 @@
+package geektime.tdd.di;
+
+record ConstantProvider<T>(T value) implements ContextConfig.Provider<T> {
+    @Override
+    public T get(Context context) {
+        return value;
+    }
+}
@@ -0,0 +1,85 @@
+package geektime.tdd.di;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.lang.invoke.MethodType.methodType;
+
+class ConstructorProvider<T> implements ContextConfig.Provider<T> {
+    private static final MethodHandle RESOLVE;
+
+    static {
+        try {
+            RESOLVE = MethodHandles.lookup().findStatic(ConstructorProvider.class, "resolve",
+                    methodType(Object.class, ComponentRef.class, Context.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final InjectionProvider.Injectable<Constructor<T>> constructor;
+    private final Optional<Annotation> scope;
+    private final MethodHandle factory;
+
+    ConstructorProvider(InjectionProvider.Injectable<Constructor<T>> constructor, Optional<Annotation> scope) {
+        this(constructor, scope, Map.of());
+    }
+
+    private ConstructorProvider(InjectionProvider.Injectable<Constructor<T>> constructor, Optional<Annotation> scope,
+                                Map<Component, Object> constants) {
+        this.constructor = constructor;
+        this.scope = scope;
+        this.factory = compile(constructor, constants);
+    }
+
+    @Override
+    public T get(Context context) {
+        try {
+            return (T) (Object) factory.invokeExact(context);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public ConstructorProvider<T> inline(Map<Component, Object> constants) {
+        return !constructor.inlines(constants) ? this : new ConstructorProvider<>(constructor, scope, constants);
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return List.of(constructor.required());
+    }
+
+    @Override
+    public Optional<Annotation> getScope() {
+        return scope;
+    }
+
+    private static MethodHandle compile(InjectionProvider.Injectable<? extends Constructor<?>> constructor,
+                                        Map<Component, Object> constants) {
+        MethodHandle handle = InjectionProvider.Injectable.unreflect(constructor.element());
+        ComponentRef<?>[] required = constructor.required();
+        for (int i = 0; i < required.length; i++) {
+            Class<?> parameter = handle.type().parameterType(i);
+            Object constant = required[i].isContainer() ? null : constants.get(required[i].component());
+            MethodHandle argument = constant != null ?
+                    MethodHandles.dropArguments(MethodHandles.constant(parameter, constant), 0, Context.class) :
+                    RESOLVE.bindTo(required[i]).asType(methodType(parameter, Context.class));
+            handle = MethodHandles.filterArguments(handle, i, argument);
+        }
+        return MethodHandles.permuteArguments(handle, methodType(handle.type().returnType(), Context.class), new int[required.length])
+                .asType(methodType(Object.class, Context.class));
+    }
+
+    private static Object resolve(ComponentRef<?> ref, Context context) {
+        return context.get(ref).get();
+    }
+}
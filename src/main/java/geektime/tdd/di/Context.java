@@ -1,8 +1,37 @@
 package geektime.tdd.di;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
-public interface Context {
+public interface Context extends AutoCloseable {
     <T> Optional<T> get(ComponentRef<T> ref);
 
+    List<Object> getAll(List<ComponentRef<?>> refs);
+
+    <T> T injectMembers(T instance);
+
+    <T> void release(ComponentRef<T> ref, T instance);
+
+    Optional<PoolStats> poolStats(ComponentRef<?> ref);
+
+    Map<ComponentRef<?>, Duration> warmUp(int iterations, ComponentRef<?>... roots);
+
+    void rebind(Consumer<ContextConfig> bindings);
+
+    <T> Accessor<T> accessor(ComponentRef<T> ref);
+
+    int unreachableBindings();
+
+    CompletableFuture<Void> validated();
+
+    ShutdownReport close(Duration timeout);
+
+    @Override
+    default void close() {
+        close(Duration.ofSeconds(30));
+    }
 }
@@ -3,10 +3,30 @@ package geektime.tdd.di;
 import jakarta.inject.Qualifier;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 public class ContextConfig {
-    private Map<Component, Provider<?>> components = new HashMap<>();
+    private final Map<Component, Provider<?>> components = new ConcurrentHashMap<>();
+    private final Set<Component> conflicts = ConcurrentHashMap.newKeySet();
+    private final ReadWriteLock barrier = new ReentrantReadWriteLock();
+    private int cacheMaximumSize = 1024;
+    private Duration cacheExpireAfterAccess;
+    private boolean cacheSoftValues;
+    private StartupProfiler profiler;
+    private Validation validation = Validation.EAGER;
+    private Introspection introspection = Introspection.EAGER;
+    private int introspectionThreads = 1;
+    private volatile boolean introspected;
 
     interface Provider<T> {
         T get(Context context);
@@ -14,61 +34,779 @@ public class ContextConfig {
         default List<ComponentRef<?>> getDependencies() {
             return List.of();
         }
+
+        default Optional<Annotation> getScope() {
+            return Optional.empty();
+        }
+
+        default Provider<T> inline(Map<Component, Object> constants) {
+            return this;
+        }
+
+        default Provider<T> bind(Context context) {
+            return this;
+        }
     }
 
     public <T> void bind(Class<T> type, T instance) {
-        components.put(new Component(type, null), context -> instance);
+        binding(() -> register(new Component(type, null), new ConstantProvider<>(instance)));
     }
 
     public <T> void bind(Class<T> type, T instance, Annotation... qualifiers) {
         if (Arrays.stream(qualifiers).anyMatch(q -> !q.annotationType().isAnnotationPresent(Qualifier.class)))
             throw new IllegalComponentException();
-        for (Annotation qualifier : qualifiers)
-            components.put(new Component(type, qualifier), context -> instance);
+        ConstantProvider<T> provider = new ConstantProvider<>(instance);
+        binding(() -> {
+            for (Annotation qualifier : qualifiers)
+                register(new Component(type, qualifier), provider);
+        });
     }
 
     public <T, Impl extends T> void bind(Class<T> type, Class<Impl> implementation) {
-        components.put(new Component(type, null), new InjectionProvider<>(implementation));
+        Component component = new Component(type, null);
+        binding(() -> register(component, introspect(component, implementation)));
     }
 
     public <T, Impl extends T> void bind(Class<T> type, Class<Impl> implementation, Annotation... qualifiers) {
         if (Arrays.stream(qualifiers).anyMatch(q -> !q.annotationType().isAnnotationPresent(Qualifier.class)))
             throw new IllegalComponentException();
-        for (Annotation qualifier : qualifiers)
-            components.put(new Component(type, qualifier), new InjectionProvider<>(implementation));
+        if (qualifiers.length == 0) return;
+        binding(() -> {
+            Provider<Impl> provider = introspect(new Component(type, qualifiers[0]), implementation);
+            for (Annotation qualifier : qualifiers)
+                register(new Component(type, qualifier), provider);
+        });
+    }
+
+    public <T> void bind(ComponentRef<T> ref, T instance) {
+        if (ref.isContainer()) throw new IllegalComponentException();
+        binding(() -> register(ref.component(), new ConstantProvider<>(instance)));
+    }
+
+    public <T> void bind(ComponentRef<T> ref, Class<? extends T> implementation) {
+        if (ref.isContainer()) throw new IllegalComponentException();
+        binding(() -> register(ref.component(), introspect(ref.component(), implementation)));
+    }
+
+    public <F> void bindFactory(Class<F> factory, Class<?> implementation) {
+        binding(() -> register(new Component(factory, null), new AssistedProvider<>(factory, implementation)));
+    }
+
+    public void install(Object module) {
+        binding(() -> {
+            List<Method> overriding = new ArrayList<>();
+            for (Class<?> type = module.getClass(); type != Object.class; type = type.getSuperclass()) {
+                List<Method> declared = List.of(type.getDeclaredMethods());
+                for (Method method : declared)
+                    if (method.isAnnotationPresent(Provides.class) && overriding.stream().noneMatch(InjectionProvider.isSameMethod(method)))
+                        register(new Component(method.getGenericReturnType(), InjectionProvider.Injectable.getQualifier(method)),
+                                new ProvidesProvider<>(module, method));
+                overriding.addAll(declared);
+            }
+        });
+    }
+
+    void bind(Component component, Provider<?> provider) {
+        binding(() -> register(component, provider));
+    }
+
+    public void profile(StartupProfiler profiler) {
+        binding(() -> this.profiler = profiler);
+    }
+
+    public void validation(Validation validation) {
+        binding(() -> this.validation = validation);
+    }
+
+    public void cache(int maximumSize, Duration expireAfterAccess, boolean softValues) {
+        if (maximumSize < 1) throw new IllegalArgumentException();
+        binding(() -> {
+            this.cacheMaximumSize = maximumSize;
+            this.cacheExpireAfterAccess = expireAfterAccess;
+            this.cacheSoftValues = softValues;
+        });
+    }
+
+    public void introspection(Introspection introspection) {
+        binding(() -> {
+            if (introspected) throw new IllegalStateException("introspection must be set before binding classes");
+            this.introspection = introspection;
+        });
+    }
+
+    public void introspection(int threads) {
+        if (threads < 1) throw new IllegalArgumentException();
+        binding(() -> {
+            if (introspected) throw new IllegalStateException("introspection must be set before binding classes");
+            this.introspectionThreads = threads;
+        });
+    }
+
+    private boolean deferred() {
+        return introspection == Introspection.LAZY || introspectionThreads > 1;
+    }
+
+    private void binding(Runnable binding) {
+        barrier.readLock().lock();
+        try {
+            binding.run();
+        } finally {
+            barrier.readLock().unlock();
+        }
+    }
+
+    private void register(Component component, Provider<?> provider) {
+        if (components.putIfAbsent(component, provider) != null) conflicts.add(component);
+    }
+
+    private Map<Component, Provider<?>> snapshot() {
+        barrier.writeLock().lock();
+        try {
+            if (!conflicts.isEmpty()) throw new ConflictingBindingsFound(conflicts);
+            return new HashMap<>(components);
+        } finally {
+            barrier.writeLock().unlock();
+        }
     }
 
     public Context getContext() {
-        components.keySet().forEach(c -> checkDependencies(c, new Stack<>()));
-        return new Context() {
-            @Override
-            public <T> Optional<T> get(ComponentRef<T> ref) {
-                if (ref.isContainer()) {
-                    if (ref.getContainer() != jakarta.inject.Provider.class)
-                        return Optional.empty();
-                    return (Optional<T>) Optional.ofNullable(getProvider(ref))
-                            .map(provider -> (jakarta.inject.Provider<Object>) () -> provider.get(this));
-                } else
-                    return Optional.ofNullable(getProvider(ref)).map(p -> (T) p.get(this));
+        Map<Component, Provider<?>> components = snapshot();
+        introspect(components);
+        return getContext(components, 0);
+    }
+
+    public Context getContext(ComponentRef<?>... roots) {
+        Map<Component, Provider<?>> components = snapshot();
+        Map<Component, Provider<?>> reachable = new HashMap<>();
+        Map<Component, Provider<?>> frontier = new HashMap<>();
+        for (ComponentRef<?> root : roots) {
+            if (!components.containsKey(root.component())) throw new DependencyNotFoundException(root.component());
+            frontier.put(root.component(), components.get(root.component()));
+        }
+        while (!frontier.isEmpty()) {
+            reachable.putAll(frontier);
+            introspect(frontier);
+            Map<Component, Provider<?>> next = new HashMap<>();
+            for (Provider<?> provider : frontier.values())
+                for (ComponentRef<?> dependency : provider.getDependencies()) {
+                    Component component = dependency.component();
+                    if (components.containsKey(component) && !reachable.containsKey(component))
+                        next.put(component, components.get(component));
+                }
+            frontier = next;
+        }
+        return getContext(reachable, components.size() - reachable.size());
+    }
+
+    private void introspect(Map<Component, Provider<?>> components) {
+        List<Component> pending = components.entrySet().stream()
+                .filter(e -> e.getValue() instanceof DeferredProvider<?> deferred && !deferred.isIntrospected())
+                .map(Map.Entry::getKey).sorted(Component.ORDER).toList();
+        if (pending.isEmpty()) return;
+        ExecutorService pool = introspectionThreads == 1 ? null : Executors.newFixedThreadPool(Math.min(introspectionThreads, pending.size()));
+        Executor executor = pool == null ? Runnable::run : pool;
+        try {
+            Map<Provider<?>, CompletableFuture<Void>> introspections = new IdentityHashMap<>();
+            for (Component component : pending)
+                introspections.computeIfAbsent(components.get(component),
+                        provider -> CompletableFuture.runAsync(((DeferredProvider<?>) provider)::introspect, executor));
+            Map<Component, Throwable> failures = new LinkedHashMap<>();
+            for (Component component : pending)
+                introspections.get(components.get(component)).handle((ignored, e) -> e).thenAccept(e -> {
+                    if (e != null) failures.put(component, e instanceof CompletionException ? e.getCause() : e);
+                }).join();
+            for (Throwable failure : failures.values()) {
+                if (failure instanceof IllegalComponentException) continue;
+                if (failure instanceof RuntimeException e) throw e;
+                if (failure instanceof Error e) throw e;
             }
+            if (!failures.isEmpty()) throw new IntrospectionFailed(failures);
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+    }
+
+    private Context getContext(Map<Component, Provider<?>> components, int unreachable) {
+        boolean parallel = validation == Validation.PARALLEL;
+        ComponentTable table = new ComponentTable(components, parallel);
+        if (validation != Validation.DEFERRED) {
+            table.checkMissing(parallel);
+            table.checkCycles();
+        }
+        ComponentCache cache = new ComponentCache(cacheMaximumSize, cacheExpireAfterAccess, cacheSoftValues, ScopedContext::discard);
+        Map<Component, Object> constants = new HashMap<>();
+        components.forEach((component, provider) -> {
+            if (provider instanceof ConstantProvider<?> constant && constant.value() != null)
+                constants.put(component, constant.value());
+        });
+        Map<Provider<?>, Provider<?>> inlined = new IdentityHashMap<>();
+        Provider<?>[] compiled = new Provider<?>[table.size()];
+        Provider<?>[] scoped = new Provider<?>[table.size()];
+        for (int id = 0; id < table.size(); id++) {
+            compiled[id] = profiled(table.component(id), inlined.computeIfAbsent(table.provider(id), p -> p.inline(constants)));
+            scoped[id] = scoped(compiled[id], cache);
+        }
+        LiveContext live = new LiveContext(unreachable);
+        boolean[] validated = validation == Validation.DEFERRED ? new boolean[table.size()] : null;
+        ScopedContext context = new ScopedContext(live, table, compiled, scoped, constants, cache, validated);
+        live.current.set(context);
+        if (validated != null) live.validation = CompletableFuture.runAsync(context::validateAll);
+        return live;
+    }
+
+    private <Impl> Provider<Impl> introspect(Component component, Class<Impl> implementation) {
+        Supplier<Provider<Impl>> introspection = () -> {
+            if (profiler == null) return InjectionProvider.of(implementation);
+            return profiler.introspect(component, () -> InjectionProvider.of(implementation));
         };
+        if (deferred()) return new DeferredProvider<>(introspection);
+        Provider<Impl> provider = introspection.get();
+        introspected = true;
+        return provider;
+    }
+
+    private <T> Provider<T> profiled(Component component, Provider<T> provider) {
+        return profiler == null ? provider : profiler.profile(component, provider);
     }
 
-    private <T> Provider<?> getProvider(ComponentRef<T> ref) {
-        return components.get(ref.component());
+    private <T> Provider<T> scoped(Provider<T> provider, ComponentCache cache) {
+        return provider.getScope().map(scope -> {
+            if (scope instanceof Pooled pooled) return new PooledProvider<>(provider, pooled.capacity());
+            if (scope instanceof Cached) return new CachedProvider<>(provider, cache);
+            return provider;
+        }).orElse(provider);
     }
 
-    private void checkDependencies(Component c, Stack<Component> visiting) {
-        for (ComponentRef ref : components.get(c).getDependencies()) {
-            Component comp = ref.component();
-            if (!components.containsKey(comp))
-                throw new DependencyNotFoundException(c, comp);
-            if (!ref.isContainer()) {
-                if (visiting.contains(comp))
-                    throw new CyclicDependenciesFound(visiting);
-                visiting.push(comp);
-                checkDependencies(comp, visiting);
-                visiting.pop();
+    class LiveContext implements Context {
+        private final AtomicReference<ScopedContext> current = new AtomicReference<>();
+        private final int unreachable;
+        private CompletableFuture<Void> validation = CompletableFuture.completedFuture(null);
+        private final ThreadLocal<ResolutionStack> resolving = ThreadLocal.withInitial(ResolutionStack::new);
+        private final Map<Component, List<Object>> retired = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        LiveContext(int unreachable) {
+            this.unreachable = unreachable;
+        }
+
+        @Override
+        public <T> Optional<T> get(ComponentRef<T> ref) {
+            return open().get(ref);
+        }
+
+        @Override
+        public List<Object> getAll(List<ComponentRef<?>> refs) {
+            return open().getAll(refs);
+        }
+
+        @Override
+        public <T> T injectMembers(T instance) {
+            return open().injectMembers(instance);
+        }
+
+        @Override
+        public <T> void release(ComponentRef<T> ref, T instance) {
+            current.get().release(ref, instance);
+        }
+
+        @Override
+        public Optional<PoolStats> poolStats(ComponentRef<?> ref) {
+            return current.get().poolStats(ref);
+        }
+
+        @Override
+        public Map<ComponentRef<?>, Duration> warmUp(int iterations, ComponentRef<?>... roots) {
+            return open().warmUp(iterations, roots);
+        }
+
+        @Override
+        public synchronized void rebind(Consumer<ContextConfig> bindings) {
+            ContextConfig changes = new ContextConfig();
+            changes.profiler = profiler;
+            bindings.accept(changes);
+            Map<Component, Provider<?>> components = changes.snapshot();
+            if (components.isEmpty()) return;
+            ScopedContext previous = open();
+            ScopedContext next = previous.next(components);
+            current.set(next);
+            previous.retire(next);
+        }
+
+        @Override
+        public <T> Accessor<T> accessor(ComponentRef<T> ref) {
+            if (ref.isContainer()) throw new IllegalComponentException();
+            ScopedContext context = open();
+            int id = context.table.id(ref.component());
+            if (id < 0) throw new DependencyNotFoundException(ref.component());
+            context.validate(id);
+            return new Accessor<>(this, id);
+        }
+
+        @Override
+        public int unreachableBindings() {
+            return unreachable;
+        }
+
+        @Override
+        public CompletableFuture<Void> validated() {
+            return validation;
+        }
+
+        @Override
+        public synchronized ShutdownReport close(Duration timeout) {
+            closed = true;
+            return current.get().close(timeout);
+        }
+
+        private ScopedContext open() {
+            if (closed) throw new IllegalStateException("context closed");
+            return current.get();
+        }
+
+        Object resolve(int id) {
+            ScopedContext context = open();
+            return context.construct(id, context);
+        }
+
+        private Object latest(Component component) {
+            ScopedContext context = open();
+            int id = context.table.id(component);
+            context.validate(id);
+            return context.construct(id, context);
+        }
+    }
+
+    private class ScopedContext implements Context {
+        private final LiveContext live;
+        private final ComponentTable table;
+        private final Provider<?>[] compiled;
+        private final Provider<?>[] scoped;
+        private final boolean[] validated;
+        private final Map<Component, Object> constants;
+        private final ComponentCache cache;
+        private final Map<List<ComponentRef<?>>, Plan> plans = new ConcurrentHashMap<>();
+        private final Map<Class<?>, MembersInjector<?>> injectors = new ConcurrentHashMap<>();
+        private BitSet replaced = new BitSet();
+
+        ScopedContext(LiveContext live, ComponentTable table, Provider<?>[] compiled, Provider<?>[] scoped,
+                      Map<Component, Object> constants, ComponentCache cache, boolean[] validated) {
+            this.live = live;
+            this.table = table;
+            this.compiled = compiled;
+            this.scoped = scoped;
+            for (int id = 0; id < scoped.length; id++) scoped[id] = scoped[id].bind(this);
+            this.validated = validated;
+            this.constants = constants;
+            this.cache = cache;
+        }
+
+        @Override
+        public <T> Optional<T> get(ComponentRef<T> ref) {
+            int id = table.id(ref.component());
+            if (id >= 0) validate(id);
+            Provider<?> provider = id < 0 ? null : scoped[id];
+            if (ref.isContainer()) {
+                if (ref.getContainer() == jakarta.inject.Provider.class)
+                    return (Optional<T>) Optional.ofNullable(provider)
+                            .map(p -> (jakarta.inject.Provider<Object>) () -> live.latest(ref.component()));
+                if (ref.getContainer() == Lease.class)
+                    return (Optional<T>) Optional.ofNullable(provider).map(p -> lease(id));
+                if (ref.getContainer() == Lazy.class)
+                    return Optional.ofNullable(provider).map(p -> LazyProxy.of((Class<T>) ref.getComponentType(), () -> (T) live.latest(ref.component())));
+                return Optional.empty();
+            } else
+                return Optional.ofNullable(provider).map(p -> (T) construct(id, this));
+        }
+
+        Object construct(int id, Context context) {
+            ResolutionStack stack = live.resolving.get();
+            stack.push(id, table);
+            try {
+                return scoped[id].get(context);
+            } finally {
+                stack.pop();
+            }
+        }
+
+        void validate(int id) {
+            if (validated == null || validated[id]) return;
+            int[] reachable = table.order(id);
+            table.checkMissing(Arrays.stream(reachable));
+            for (int component : reachable) validated[component] = true;
+        }
+
+        void validateAll() {
+            RuntimeException failure = null;
+            for (int id = 0; id < table.size(); id++)
+                try {
+                    validate(id);
+                } catch (RuntimeException e) {
+                    if (failure == null) failure = e;
+                }
+            if (failure != null) throw failure;
+        }
+
+        @Override
+        public <T> void release(ComponentRef<T> ref, T instance) {
+            if (provider(ref.component()) instanceof PooledProvider pooled)
+                pooled.release(instance);
+        }
+
+        @Override
+        public Optional<PoolStats> poolStats(ComponentRef<?> ref) {
+            return provider(ref.component()) instanceof PooledProvider<?> pooled ? Optional.of(pooled.stats()) : Optional.empty();
+        }
+
+        @Override
+        public void rebind(Consumer<ContextConfig> bindings) {
+            live.rebind(bindings);
+        }
+
+        @Override
+        public <T> Accessor<T> accessor(ComponentRef<T> ref) {
+            return live.accessor(ref);
+        }
+
+        @Override
+        public int unreachableBindings() {
+            return live.unreachableBindings();
+        }
+
+        @Override
+        public CompletableFuture<Void> validated() {
+            return live.validated();
+        }
+
+        private ScopedContext next(Map<Component, Provider<?>> changes) {
+            ComponentTable table = this.table.with(changes);
+            int[] changed = changes.keySet().stream().mapToInt(table::id).sorted().toArray();
+            table.checkMissing(Arrays.stream(changed));
+            table.checkCycles(changed);
+
+            Map<Component, Object> constants = new HashMap<>(this.constants);
+            changes.forEach((component, provider) -> {
+                constants.remove(component);
+                if (provider instanceof ConstantProvider<?> constant && constant.value() != null)
+                    constants.put(component, constant.value());
+            });
+            BitSet roots = new BitSet(table.size());
+            for (int id : changed) roots.set(id);
+            BitSet affected = table.dependents(roots);
+            Provider<?>[] compiled = Arrays.copyOf(this.compiled, table.size());
+            Provider<?>[] scoped = Arrays.copyOf(this.scoped, table.size());
+            for (int id = affected.nextSetBit(0); id >= 0; id = affected.nextSetBit(id + 1)) {
+                compiled[id] = profiled(table.component(id), table.provider(id).inline(constants));
+                scoped[id] = scoped(compiled[id], cache);
+            }
+            boolean[] validated = this.validated == null ? null : Arrays.copyOf(this.validated, table.size());
+            if (validated != null) for (int id = affected.nextSetBit(0); id >= 0; id = affected.nextSetBit(id + 1)) validated[id] = false;
+            ScopedContext next = new ScopedContext(live, table, compiled, scoped, constants, cache, validated);
+            next.replaced = affected;
+            return next;
+        }
+
+        private void retire(ScopedContext next) {
+            for (int id = next.replaced.nextSetBit(0); id >= 0 && id < table.size(); id = next.replaced.nextSetBit(id + 1)) {
+                List<?> instances = retained(id);
+                if (!instances.isEmpty())
+                    live.retired.computeIfAbsent(table.component(id), c -> Collections.synchronizedList(new ArrayList<>())).addAll(instances);
+            }
+        }
+
+        private Provider<?> provider(Component component) {
+            int id = table.id(component);
+            return id < 0 ? null : scoped[id];
+        }
+
+        private Lease<?> lease(int id) {
+            if (scoped[id] instanceof PooledProvider<?> pooled) {
+                ResolutionStack stack = live.resolving.get();
+                stack.push(id, table);
+                try {
+                    return pooled.lease(this);
+                } finally {
+                    stack.pop();
+                }
+            }
+            return held(construct(id, this));
+        }
+
+        private static Lease<?> held(Object instance) {
+            return new Lease<>() {
+                @Override
+                public Object get() {
+                    return instance;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        @Override
+        public Map<ComponentRef<?>, Duration> warmUp(int iterations, ComponentRef<?>... roots) {
+            int[] targets = roots.length == 0 ? IntStream.range(0, table.size()).toArray() :
+                    Arrays.stream(roots).mapToInt(root -> table.id(root.component())).toArray();
+            Map<ComponentRef<?>, Duration> elapsed = new LinkedHashMap<>();
+            for (int t = 0; t < targets.length; t++) {
+                if (targets[t] < 0) throw new DependencyNotFoundException(roots[t].component());
+                validate(targets[t]);
+                Component component = table.component(targets[t]);
+                Sandbox sandbox = new Sandbox();
+                long start = System.nanoTime();
+                try {
+                    for (int i = 0; i < iterations; i++)
+                        sandbox.construct(targets[t]);
+                    elapsed.put(ComponentRef.of(component.type(), component.qualifier()), Duration.ofNanos(System.nanoTime() - start));
+                } finally {
+                    Collections.reverse(sandbox.created);
+                    RuntimeException failure = destroy(sandbox.created, null);
+                    if (failure != null) throw failure;
+                }
+            }
+            return elapsed;
+        }
+
+        @Override
+        public List<Object> getAll(List<ComponentRef<?>> refs) {
+            Plan plan = plans.computeIfAbsent(List.copyOf(refs), this::plan);
+            Batch batch = new Batch(plan.ids(), new Object[plan.ids().length]);
+            for (int id : plan.order())
+                batch.resolved[Arrays.binarySearch(plan.ids(), id)] = construct(id, batch);
+            return refs.stream().<Object>map(ref -> batch.get(ref).get()).toList();
+        }
+
+        @Override
+        public ShutdownReport close(Duration timeout) {
+            int[] order = table.orderIgnoringCycles();
+            int[] position = new int[table.size()];
+            for (int i = 0; i < order.length; i++) position[order[i]] = i;
+
+            Map<ComponentRef<?>, Duration> elapsed = new ConcurrentHashMap<>();
+            Set<ComponentRef<?>> timedOut = ConcurrentHashMap.newKeySet();
+            Map<ComponentRef<?>, Throwable> failures = new ConcurrentHashMap<>();
+            CompletableFuture<?>[] closed = new CompletableFuture[table.size()];
+            ExecutorService executor = Executors.newCachedThreadPool();
+            try {
+                for (int i = order.length - 1; i >= 0; i--) {
+                    int id = order[i];
+                    Component component = table.component(id);
+                    ComponentRef<?> ref = ComponentRef.of(component.type(), component.qualifier());
+                    List<Object> instances = new ArrayList<>(retained(id));
+                    List<Object> retired = live.retired.remove(component);
+                    if (retired != null) instances.addAll(retired);
+                    closed[id] = CompletableFuture.allOf(IntStream.range(table.dependentStart(id), table.dependentEnd(id)).map(table::dependent)
+                                    .filter(d -> position[d] > position[id]).mapToObj(d -> closed[d]).toArray(CompletableFuture[]::new))
+                            .thenCompose(ignored -> instances.isEmpty() ? CompletableFuture.completedFuture(null) :
+                                    CompletableFuture.runAsync(() -> {
+                                        long start = System.nanoTime();
+                                        try {
+                                            RuntimeException failure = destroy(instances, null);
+                                            if (failure != null) throw failure;
+                                        } finally {
+                                            elapsed.put(ref, Duration.ofNanos(System.nanoTime() - start));
+                                        }
+                                    }, executor).orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS))
+                            .handle((ignored, e) -> {
+                                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                                if (cause instanceof TimeoutException) {
+                                    timedOut.add(ref);
+                                    elapsed.put(ref, timeout);
+                                } else if (cause != null) failures.put(ref, cause);
+                                return null;
+                            });
+                }
+                CompletableFuture.allOf(closed).join();
+            } finally {
+                executor.shutdownNow();
+            }
+            return new ShutdownReport(Map.copyOf(elapsed), Set.copyOf(timedOut), Map.copyOf(failures));
+        }
+
+        private List<?> retained(int id) {
+            if (scoped[id] instanceof PooledProvider<?> pooled) return pooled.retire(ScopedContext::destroy);
+            if (scoped[id] instanceof CachedProvider<?> cached) return cached.evict().stream().toList();
+            return List.of();
+        }
+
+        private static RuntimeException destroy(Iterable<?> instances, RuntimeException failure) {
+            for (Object instance : instances)
+                try {
+                    destroy(instance);
+                } catch (CompletionException e) {
+                    RuntimeException cause = e.getCause() instanceof RuntimeException r ? r : e;
+                    if (failure == null) failure = cause;
+                    else failure.addSuppressed(cause);
+                }
+            return failure;
+        }
+
+        private static void discard(Object instance) {
+            try {
+                destroy(instance);
+            } catch (CompletionException ignored) {
+            }
+        }
+
+        private static void destroy(Object instance) {
+            try {
+                for (Class<?> type = instance.getClass(); type != Object.class; type = type.getSuperclass())
+                    for (Method method : type.getDeclaredMethods())
+                        if (method.isAnnotationPresent(PreDestroy.class) && method.getParameterCount() == 0) {
+                            method.setAccessible(true);
+                            method.invoke(instance);
+                            return;
+                        }
+                if (instance instanceof AutoCloseable closeable) closeable.close();
+            } catch (InvocationTargetException e) {
+                throw new CompletionException(e.getCause());
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }
+
+        @Override
+        public <T> T injectMembers(T instance) {
+            MembersInjector<T> injector = (MembersInjector<T>) injectors.computeIfAbsent(instance.getClass(), this::injector);
+            return injector.inject(instance, this);
+        }
+
+        private MembersInjector<?> injector(Class<?> type) {
+            MembersInjector<?> injector = new MembersInjector<>(type);
+            for (ComponentRef<?> ref : injector.getDependencies())
+                if (table.id(ref.component()) < 0)
+                    throw new DependencyNotFoundException(new Component(type, null), ref.component());
+            return injector.inline(constants);
+        }
+
+        private Plan plan(List<ComponentRef<?>> refs) {
+            BitSet planned = new BitSet(table.size());
+            int[] order = new int[table.size()];
+            int size = 0;
+            for (ComponentRef<?> ref : refs) {
+                int id = table.id(ref.component());
+                if (id < 0) throw new DependencyNotFoundException(ref.component());
+                validate(id);
+                if (!ref.isContainer()) size = plan(id, planned, order, size);
+            }
+            return new Plan(Arrays.copyOf(order, size), planned.stream().toArray());
+        }
+
+        private int plan(int id, BitSet planned, int[] order, int size) {
+            if (planned.get(id)) return size;
+            planned.set(id);
+            for (int edge = table.start(id); edge < table.end(id); edge++)
+                if (table.isConstruction(edge) && !table.isLease(edge)) size = plan(table.target(edge), planned, order, size);
+            order[size++] = id;
+            return size;
+        }
+
+        private record Plan(int[] order, int[] ids) {
+        }
+
+        private class Batch extends Delegate {
+            private final int[] ids;
+            private final Object[] resolved;
+
+            Batch(int[] ids, Object[] resolved) {
+                this.ids = ids;
+                this.resolved = resolved;
+            }
+
+            @Override
+            public <T> Optional<T> get(ComponentRef<T> ref) {
+                if (!ref.isContainer()) {
+                    int slot = Arrays.binarySearch(ids, table.id(ref.component()));
+                    if (slot >= 0 && resolved[slot] != null) return Optional.of((T) resolved[slot]);
+                }
+                return ScopedContext.this.get(ref);
+            }
+        }
+
+        private class Sandbox extends Delegate {
+            private final List<Object> created = new ArrayList<>();
+
+            @Override
+            public <T> Optional<T> get(ComponentRef<T> ref) {
+                int id = table.id(ref.component());
+                if (id < 0) return Optional.empty();
+                if (!ref.isContainer()) return Optional.of((T) construct(id));
+                if (ref.getContainer() == jakarta.inject.Provider.class)
+                    return Optional.of((T) (jakarta.inject.Provider<Object>) () -> construct(id));
+                if (ref.getContainer() == Lease.class)
+                    return Optional.of((T) held(construct(id)));
+                if (ref.getContainer() == Lazy.class)
+                    return Optional.of(LazyProxy.of((Class<T>) ref.getComponentType(), () -> (T) construct(id)));
+                return Optional.empty();
+            }
+
+            @Override
+            public <T> void release(ComponentRef<T> ref, T instance) {
+            }
+
+            Object construct(int id) {
+                ResolutionStack stack = live.resolving.get();
+                stack.push(id, table);
+                try {
+                    Object instance = compiled[id].get(this);
+                    if (scoped[id] != compiled[id]) created.add(instance);
+                    return instance;
+                } finally {
+                    stack.pop();
+                }
+            }
+        }
+
+        private abstract class Delegate implements Context {
+            @Override
+            public List<Object> getAll(List<ComponentRef<?>> refs) {
+                return ScopedContext.this.getAll(refs);
+            }
+
+            @Override
+            public <T> T injectMembers(T instance) {
+                return ScopedContext.this.injectMembers(instance);
+            }
+
+            @Override
+            public <T> void release(ComponentRef<T> ref, T instance) {
+                ScopedContext.this.release(ref, instance);
+            }
+
+            @Override
+            public Optional<PoolStats> poolStats(ComponentRef<?> ref) {
+                return ScopedContext.this.poolStats(ref);
+            }
+
+            @Override
+            public Map<ComponentRef<?>, Duration> warmUp(int iterations, ComponentRef<?>... roots) {
+                return ScopedContext.this.warmUp(iterations, roots);
+            }
+
+            @Override
+            public void rebind(Consumer<ContextConfig> bindings) {
+                ScopedContext.this.rebind(bindings);
+            }
+
+            @Override
+            public <T> Accessor<T> accessor(ComponentRef<T> ref) {
+                return ScopedContext.this.accessor(ref);
+            }
+
+            @Override
+            public int unreachableBindings() {
+                return ScopedContext.this.unreachableBindings();
+            }
+
+            @Override
+            public CompletableFuture<Void> validated() {
+                return ScopedContext.this.validated();
+            }
+
+            @Override
+            public ShutdownReport close(Duration timeout) {
+                return ScopedContext.this.close(timeout);
             }
         }
     }
@@ -6,12 +6,18 @@ import java.util.Set;
 
 public class CyclicDependenciesFound extends RuntimeException {
     private Set<Component> components = new HashSet<>();
+    private List<Component> path;
 
     public CyclicDependenciesFound(List<Component> visiting) {
         components.addAll(visiting);
+        path = List.copyOf(visiting);
     }
 
     public Class<?>[] getComponents() {
-        return components.stream().map(c -> c.type()).toArray(Class<?>[]::new);
+        return components.stream().map(c -> c.rawType()).toArray(Class<?>[]::new);
+    }
+
+    public List<Component> getPath() {
+        return path;
     }
 }
@@ -0,0 +1,52 @@
+package geektime.tdd.di;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+class DeferredProvider<T> implements ContextConfig.Provider<T> {
+    private final Supplier<ContextConfig.Provider<T>> introspection;
+    private volatile ContextConfig.Provider<T> provider;
+
+    public DeferredProvider(Supplier<ContextConfig.Provider<T>> introspection) {
+        this.introspection = introspection;
+    }
+
+    public boolean isIntrospected() {
+        return provider != null;
+    }
+
+    public void introspect() {
+        provider();
+    }
+
+    private ContextConfig.Provider<T> provider() {
+        ContextConfig.Provider<T> provider = this.provider;
+        if (provider == null) synchronized (this) {
+            if ((provider = this.provider) == null) this.provider = provider = introspection.get();
+        }
+        return provider;
+    }
+
+    @Override
+    public T get(Context context) {
+        return provider().get(context);
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return provider().getDependencies();
+    }
+
+    @Override
+    public Optional<Annotation> getScope() {
+        return provider().getScope();
+    }
+
+    @Override
+    public ContextConfig.Provider<T> inline(Map<Component, Object> constants) {
+        return provider().inline(constants);
+    }
+}
@@ -9,6 +9,10 @@ public class DependencyNotFoundException extends RuntimeException {
         this.dependency = dependency;
     }
 
+    public DependencyNotFoundException(Component dependency) {
+        this(null, dependency);
+    }
+
     public Component getComponent() {
         return component;
     }
@@ -2,64 +2,129 @@ package geektime.tdd.di;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Qualifier;
+import jakarta.inject.Scope;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import static java.lang.invoke.MethodType.methodType;
 import static java.util.Arrays.stream;
 import static java.util.stream.Stream.concat;
 
 class InjectionProvider<T> implements ContextConfig.Provider<T> {
     private Injectable<Constructor<T>> constructor;
-    private List<Injectable<Field>> fields;
-    private List<Injectable<Method>> methods;
+    private MembersInjector<T> members;
+    private Optional<Annotation> scope;
 
     public InjectionProvider(Class<T> component) {
         if (Modifier.isAbstract(component.getModifiers()))
             throw new IllegalComponentException();
 
+        this.scope = getScope(component);
         this.constructor = getConstructor(component);
-        this.fields = getFields(component);
-        this.methods = getMethods(component);
+        this.members = new MembersInjector<>(component);
+    }
 
-        if (fields.stream().map(Injectable::element).anyMatch(f -> Modifier.isFinal(f.getModifiers())))
-            throw new IllegalComponentException();
-        if (methods.stream().map(Injectable::element).anyMatch(m -> m.getTypeParameters().length != 0))
-            throw new IllegalComponentException();
+    static <T> ContextConfig.Provider<T> of(Class<T> component) {
+        InjectionProvider<T> provider = new InjectionProvider<>(component);
+        return provider.members.isEmpty() ? new ConstructorProvider<>(provider.constructor, provider.scope) : provider;
+    }
 
+    private InjectionProvider(Optional<Annotation> scope, Injectable<Constructor<T>> constructor, MembersInjector<T> members) {
+        this.scope = scope;
+        this.constructor = constructor;
+        this.members = members;
+    }
+
+    @Override
+    public InjectionProvider<T> inline(Map<Component, Object> constants) {
+        if (!constructor.inlines(constants) && !members.inlines(constants)) return this;
+        return new InjectionProvider<>(scope, constructor.inline(constants), members.inline(constants));
     }
 
     @Override
     public T get(Context context) {
         try {
-            T instance = constructor.element().newInstance(constructor.toDependencies(context));
-            for (Injectable<Field> f : fields) {
-                f.element().set(instance, f.toDependencies(context)[0]);
-            }
-            for (Injectable<Method> m : methods) {
-                m.element().invoke(instance, m.toDependencies(context));
-            }
-            return instance;
-        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
+            return members.inject((T) constructor.construct(context), context);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
             throw new RuntimeException(e);
         }
     }
 
-    static record Injectable<E extends AccessibleObject>(E element, ComponentRef<?>[] required) {
+    static record Injectable<E extends AccessibleObject>(E element, ComponentRef<?>[] required,
+                                                         ComponentRef<?>[] resolved, MethodHandle invoker) {
+        private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
         static <E extends Executable> Injectable<E> of(E element) {
             ComponentRef<?>[] required = stream(element.getParameters()).map(Injectable::toComponentRef).toArray(ComponentRef<?>[]::new);
-            return new Injectable<>(element, required);
+            return compile(element, required, Map.of());
         }
 
         static Injectable<Field> of(Field f) {
-            return new Injectable<>(f, new ComponentRef<?>[]{toComponentRef(f)});
+            return compile(f, new ComponentRef<?>[]{toComponentRef(f)}, Map.of());
+        }
+
+        Injectable<E> inline(Map<Component, Object> constants) {
+            return inlines(constants) ? compile(element, required, constants) : this;
+        }
+
+        boolean inlines(Map<Component, Object> constants) {
+            return inlines(required, constants);
+        }
+
+        static boolean inlines(ComponentRef<?>[] required, Map<Component, Object> constants) {
+            for (ComponentRef<?> ref : required)
+                if (ref != null && !ref.isContainer() && constants.containsKey(ref.component())) return true;
+            return false;
+        }
+
+        private static <E extends AccessibleObject> Injectable<E> compile(E element, ComponentRef<?>[] required,
+                                                                          Map<Component, Object> constants) {
+            MethodHandle handle = unreflect(element);
+            int receiver = element instanceof Constructor<?> ? 0 : 1;
+            if (element instanceof Member member && !(element instanceof Constructor<?>) && Modifier.isStatic(member.getModifiers()))
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            LinkedList<ComponentRef<?>> resolved = new LinkedList<>();
+            for (int i = required.length - 1; i >= 0; i--) {
+                Object constant = required[i].isContainer() ? null : constants.get(required[i].component());
+                if (constant != null) handle = MethodHandles.insertArguments(handle, receiver + i, constant);
+                else resolved.addFirst(required[i]);
+            }
+            MethodType invoker = receiver == 0 ? methodType(Object.class, Object[].class) :
+                    methodType(Object.class, Object.class, Object[].class);
+            return new Injectable<>(element, required, resolved.toArray(ComponentRef<?>[]::new),
+                    handle.asSpreader(Object[].class, resolved.size()).asType(invoker));
         }
 
-        private static Annotation getQualifier(AnnotatedElement p) {
+        static MethodHandle unreflect(AccessibleObject element) {
+            try {
+                element.trySetAccessible();
+                if (element instanceof Constructor<?> constructor) return LOOKUP.unreflectConstructor(constructor);
+                if (element instanceof Method method) return LOOKUP.unreflect(method);
+                return LOOKUP.unreflectSetter((Field) element);
+            } catch (IllegalAccessException e) {
+                throw new IllegalComponentException();
+            }
+        }
+
+        Object construct(Context context) throws Throwable {
+            return (Object) invoker.invokeExact(toDependencies(context));
+        }
+
+        void inject(Object instance, Context context) throws Throwable {
+            Object ignored = (Object) invoker.invokeExact(instance, toDependencies(context));
+        }
+
+        static Annotation getQualifier(AnnotatedElement p) {
             List<Annotation> qualifiers = stream(p.getAnnotations()).filter(a ->
                     a.annotationType().isAnnotationPresent(Qualifier.class)).toList();
             if (qualifiers.size() > 1)
@@ -68,24 +133,40 @@ class InjectionProvider<T> implements ContextConfig.Provider<T> {
         }
 
         private static ComponentRef<?> toComponentRef(Parameter p) {
-            Annotation qualifier = getQualifier(p);
-            return ComponentRef.of(p.getParameterizedType(), qualifier);
+            return toComponentRef(p, p.getParameterizedType());
         }
 
         private static ComponentRef toComponentRef(Field f) {
-            Annotation qualifier = getQualifier(f);
-            return ComponentRef.of(f.getGenericType(), qualifier);
+            return toComponentRef(f, f.getGenericType());
+        }
+
+        private static ComponentRef<?> toComponentRef(AnnotatedElement element, Type type) {
+            Annotation qualifier = getQualifier(element);
+            if (element.isAnnotationPresent(Lazy.class))
+                return ComponentRef.lazy(type, qualifier);
+            return ComponentRef.of(type, qualifier);
         }
 
         Object[] toDependencies(Context context) {
-            return stream(required).map(context::get).map(Optional::get).toArray();
+            return stream(resolved).map(context::get).map(Optional::get).toArray();
         }
     }
 
     @Override
     public List<ComponentRef<?>> getDependencies() {
-        return concat(concat(Stream.of(constructor), fields.stream()), methods.stream())
-                .flatMap(i -> stream(i.required())).toList();
+        return concat(stream(constructor.required()), members.getDependencies().stream()).toList();
+    }
+
+    @Override
+    public Optional<Annotation> getScope() {
+        return scope;
+    }
+
+    static Optional<Annotation> getScope(AnnotatedElement component) {
+        List<Annotation> scopes = stream(component.getAnnotations())
+                .filter(a -> a.annotationType().isAnnotationPresent(Scope.class)).toList();
+        if (scopes.size() > 1) throw new IllegalComponentException();
+        return scopes.stream().findFirst();
     }
 
     private static <T> Constructor<T> defaultConstructor(Class<T> implementation) {
@@ -108,20 +189,21 @@ class InjectionProvider<T> implements ContextConfig.Provider<T> {
         return stream(elements).filter(f -> f.isAnnotationPresent(Inject.class));
     }
 
-    private static <T> Injectable<Constructor<T>> getConstructor(Class<T> component) {
-        List<Constructor<?>> constructors = injectable(component.getConstructors()).toList();
+    static <T> Injectable<Constructor<T>> getConstructor(Class<T> component) {
+        List<Constructor<?>> constructors = injectable(component.isRecord() ?
+                component.getDeclaredConstructors() : component.getConstructors()).toList();
         if (constructors.size() > 1) throw new IllegalComponentException();
 
         return Injectable.of((Constructor<T>) constructors.stream()
                 .findFirst().orElseGet(() -> defaultConstructor(component)));
     }
 
-    private static List<Injectable<Field>> getFields(Class<?> component) {
+    static List<Injectable<Field>> getFields(Class<?> component) {
         List<Field> injectFields = traverse(component, (fields1, cur) -> injectable(cur.getDeclaredFields()).toList());
         return injectFields.stream().map(Injectable::of).toList();
     }
 
-    private static List<Injectable<Method>> getMethods(Class<?> component) {
+    static List<Injectable<Method>> getMethods(Class<?> component) {
         List<Method> methods1 = traverse(component, (ms, cur) -> injectable(cur.getDeclaredMethods())
                 .filter(m -> isOverrideByInjectMethod(ms, m))
                 .filter(m -> isOverrideByNoInjectMethod(component, m))
@@ -139,7 +221,7 @@ class InjectionProvider<T> implements ContextConfig.Provider<T> {
         return methods.stream().noneMatch(isSameMethod(m));
     }
 
-    private static Predicate<Method> isSameMethod(Method m) {
+    static Predicate<Method> isSameMethod(Method m) {
         return o -> o.getName().equals(m.getName()) &&
                 Arrays.equals(o.getParameterTypes(), m.getParameterTypes());
     }
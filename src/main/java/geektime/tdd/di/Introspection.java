@@ -0,0 +1,5 @@
+package geektime.tdd.di;
+
+public enum Introspection {
+    EAGER, LAZY
+}
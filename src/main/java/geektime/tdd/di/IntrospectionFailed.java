@@ -0,0 +1,16 @@
+package geektime.tdd.di;
+
+import java.util.Map;
+
+public class IntrospectionFailed extends IllegalComponentException {
+    private final Map<Component, Throwable> failures;
+
+    public IntrospectionFailed(Map<Component, Throwable> failures) {
+        this.failures = failures;
+        initCause(failures.values().iterator().next());
+    }
+
+    public Map<Component, Throwable> getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,37 @@
+package geektime.tdd.di;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+class LazyProxy implements InvocationHandler {
+    private final Supplier<?> supplier;
+    private final AtomicReference<Object> target = new AtomicReference<>();
+
+    private LazyProxy(Supplier<?> supplier) {
+        this.supplier = supplier;
+    }
+
+    static <T> T of(Class<T> type, Supplier<?> supplier) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new LazyProxy(supplier)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object target() {
+        Object instance = target.get();
+        if (instance != null) return instance;
+        instance = supplier.get();
+        return target.compareAndSet(null, instance) ? instance : target.get();
+    }
+}
@@ -0,0 +1,8 @@
+package geektime.tdd.di;
+
+public interface Lease<T> extends AutoCloseable {
+    T get();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,61 @@
+package geektime.tdd.di;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.stream;
+import static java.util.stream.Stream.concat;
+
+class MembersInjector<T> {
+    private List<InjectionProvider.Injectable<Field>> fields;
+    private List<InjectionProvider.Injectable<Method>> methods;
+
+    public MembersInjector(Class<T> component) {
+        this(InjectionProvider.getFields(component), InjectionProvider.getMethods(component));
+
+        if (fields.stream().map(InjectionProvider.Injectable::element).anyMatch(f -> Modifier.isFinal(f.getModifiers())))
+            throw new IllegalComponentException();
+        if (methods.stream().map(InjectionProvider.Injectable::element).anyMatch(m -> m.getTypeParameters().length != 0))
+            throw new IllegalComponentException();
+    }
+
+    private MembersInjector(List<InjectionProvider.Injectable<Field>> fields, List<InjectionProvider.Injectable<Method>> methods) {
+        this.fields = fields;
+        this.methods = methods;
+    }
+
+    MembersInjector<T> inline(Map<Component, Object> constants) {
+        if (!inlines(constants)) return this;
+        return new MembersInjector<>(fields.stream().map(f -> f.inline(constants)).toList(),
+                methods.stream().map(m -> m.inline(constants)).toList());
+    }
+
+    public T inject(T instance, Context context) {
+        try {
+            for (InjectionProvider.Injectable<Field> f : fields)
+                f.inject(instance, context);
+            for (InjectionProvider.Injectable<Method> m : methods)
+                m.inject(instance, context);
+            return instance;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    boolean inlines(Map<Component, Object> constants) {
+        return concat(fields.stream(), methods.stream()).anyMatch(i -> i.inlines(constants));
+    }
+
+    boolean isEmpty() {
+        return fields.isEmpty() && methods.isEmpty();
+    }
+
+    public List<ComponentRef<?>> getDependencies() {
+        return concat(fields.stream(), methods.stream()).flatMap(i -> stream(i.required())).toList();
+    }
+}
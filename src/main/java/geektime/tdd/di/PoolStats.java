@@ -0,0 +1,4 @@
+package geektime.tdd.di;
+
+public record PoolStats(long hits, long misses) {
+}
@@ -0,0 +1,108 @@
+package geektime.tdd.di;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+class PooledProvider<T> implements ContextConfig.Provider<T> {
+    private final ContextConfig.Provider<T> provider;
+    private final AtomicReferenceArray<T>[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile Consumer<? super T> retired;
+
+    public PooledProvider(ContextConfig.Provider<T> provider, int capacity) {
+        if (capacity < 1) throw new IllegalComponentException();
+        this.provider = provider;
+        int stripes = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1), Integer.highestOneBit(capacity));
+        this.stripes = new AtomicReferenceArray[stripes];
+        for (int i = 0; i < stripes; i++)
+            this.stripes[i] = new AtomicReferenceArray<>(capacity / stripes + (i < capacity % stripes ? 1 : 0));
+    }
+
+    @Override
+    public T get(Context context) {
+        int home = stripe();
+        for (int i = 0; i < stripes.length; i++) {
+            T instance = take(stripes[(home + i) & (stripes.length - 1)]);
+            if (instance != null) {
+                hits.increment();
+                return instance;
+            }
+        }
+        misses.increment();
+        return provider.get(context);
+    }
+
+    public void release(T instance) {
+        if (retired != null) {
+            retired.accept(instance);
+            return;
+        }
+        int home = stripe();
+        for (int i = 0; i < stripes.length; i++)
+            if (put(stripes[(home + i) & (stripes.length - 1)], instance)) break;
+        if (retired != null) drain().forEach(retired);
+    }
+
+    public Lease<T> lease(Context context) {
+        T instance = get(context);
+        return new Lease<>() {
+            private boolean released;
+
+            @Override
+            public T get() {
+                return instance;
+            }
+
+            @Override
+            public void close() {
+                if (released) return;
+                released = true;
+                release(instance);
+            }
+        };
+    }
+
+    public List<T> retire(Consumer<? super T> destroyer) {
+        retired = destroyer;
+        return drain();
+    }
+
+    public List<T> drain() {
+        List<T> idle = new ArrayList<>();
+        for (AtomicReferenceArray<T> slots : stripes)
+            for (T instance = take(slots); instance != null; instance = take(slots))
+                idle.add(instance);
+        return idle;
+    }
+
+    public PoolStats stats() {
+        return new PoolStats(hits.sum(), misses.sum());
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return provider.getDependencies();
+    }
+
+    private int stripe() {
+        return (int) Thread.currentThread().getId() & (stripes.length - 1);
+    }
+
+    private static <T> boolean put(AtomicReferenceArray<T> slots, T instance) {
+        for (int i = 0; i < slots.length(); i++)
+            if (slots.get(i) == null && slots.compareAndSet(i, null, instance)) return true;
+        return false;
+    }
+
+    private static <T> T take(AtomicReferenceArray<T> slots) {
+        for (int i = 0; i < slots.length(); i++) {
+            T instance = slots.get(i);
+            if (instance != null && slots.compareAndSet(i, instance, null)) return instance;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+package geektime.tdd.di;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+class ProvidesProvider<T> implements ContextConfig.Provider<T> {
+    private Object module;
+    private InjectionProvider.Injectable<Method> method;
+    private MethodHandle invoker;
+    private Optional<Annotation> scope;
+
+    public ProvidesProvider(Object module, Method method) {
+        this(module, InjectionProvider.Injectable.of(method), InjectionProvider.getScope(method));
+        if (method.getReturnType() == void.class || method.getTypeParameters().length != 0)
+            throw new IllegalComponentException();
+    }
+
+    private ProvidesProvider(Object module, InjectionProvider.Injectable<Method> method, Optional<Annotation> scope) {
+        this.module = module;
+        this.method = method;
+        this.invoker = method.invoker().bindTo(module);
+        this.scope = scope;
+    }
+
+    @Override
+    public T get(Context context) {
+        try {
+            return (T) (Object) invoker.invokeExact(method.toDependencies(context));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return List.of(method.required());
+    }
+
+    @Override
+    public Optional<Annotation> getScope() {
+        return scope;
+    }
+
+    @Override
+    public ProvidesProvider<T> inline(Map<Component, Object> constants) {
+        return !method.inlines(constants) ? this : new ProvidesProvider<>(module, method.inline(constants), scope);
+    }
+}
@@ -0,0 +1,32 @@
+package geektime.tdd.di;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+final class ResolutionStack {
+    private int[] ids = new int[32];
+    private final BitSet resolving = new BitSet();
+    private int depth;
+
+    void push(int id, ComponentTable table) {
+        if (resolving.get(id)) throw new CyclicDependenciesFound(cycle(id, table));
+        if (depth == ids.length) ids = Arrays.copyOf(ids, depth * 2);
+        ids[depth++] = id;
+        resolving.set(id);
+    }
+
+    void pop() {
+        resolving.clear(ids[--depth]);
+    }
+
+    private List<Component> cycle(int id, ComponentTable table) {
+        int start = depth - 1;
+        while (ids[start] != id) start--;
+        List<Component> cycle = new ArrayList<>(depth - start + 1);
+        for (int i = start; i < depth; i++) cycle.add(table.component(ids[i]));
+        cycle.add(table.component(id));
+        return cycle;
+    }
+}
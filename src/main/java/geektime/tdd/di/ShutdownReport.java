@@ -0,0 +1,15 @@
+package geektime.tdd.di;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public record ShutdownReport(Map<ComponentRef<?>, Duration> elapsed, Set<ComponentRef<?>> timedOut,
+                             Map<ComponentRef<?>, Throwable> failures) {
+    public List<ComponentRef<?>> slowerThan(Duration threshold) {
+        return elapsed.entrySet().stream().filter(e -> e.getValue().compareTo(threshold) > 0)
+                .sorted(Map.Entry.<ComponentRef<?>, Duration>comparingByValue().reversed())
+                .<ComponentRef<?>>map(Map.Entry::getKey).toList();
+    }
+}
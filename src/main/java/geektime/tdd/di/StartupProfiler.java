@@ -0,0 +1,146 @@
+package geektime.tdd.di;
+
+import java.lang.annotation.Annotation;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+public class StartupProfiler {
+    private final Map<Component, Timing> timings = new ConcurrentHashMap<>();
+    private final Map<Component, List<Component>> dependencies = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<long[]>> constructing = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public record Entry(ComponentRef<?> component, Duration introspection, Duration self, Duration total,
+                        double criticalPathShare) {
+    }
+
+    <T> T introspect(Component component, Supplier<T> introspection) {
+        long start = System.nanoTime();
+        try {
+            return introspection.get();
+        } finally {
+            timing(component).introspected(System.nanoTime() - start);
+        }
+    }
+
+    <T> ContextConfig.Provider<T> profile(Component component, ContextConfig.Provider<T> provider) {
+        dependencies.put(component, provider.getDependencies().stream()
+                .filter(ref -> !ref.isContainer()).map(ComponentRef::component).toList());
+        return new ContextConfig.Provider<>() {
+            @Override
+            public T get(Context context) {
+                Deque<long[]> frames = constructing.get();
+                long[] dependencyTime = new long[1];
+                frames.push(dependencyTime);
+                long start = System.nanoTime();
+                try {
+                    return provider.get(context);
+                } finally {
+                    long total = System.nanoTime() - start;
+                    frames.pop();
+                    if (!frames.isEmpty()) frames.peek()[0] += total;
+                    timing(component).constructed(total - dependencyTime[0], total);
+                }
+            }
+
+            @Override
+            public List<ComponentRef<?>> getDependencies() {
+                return provider.getDependencies();
+            }
+
+            @Override
+            public Optional<Annotation> getScope() {
+                return provider.getScope();
+            }
+
+            @Override
+            public ContextConfig.Provider<T> bind(Context context) {
+                ContextConfig.Provider<T> bound = provider.bind(context);
+                return bound == provider ? this : profile(component, bound);
+            }
+        };
+    }
+
+    public List<Entry> report() {
+        Map<Component, Long> longest = new HashMap<>();
+        Map<Component, Component> next = new HashMap<>();
+        Component start = null;
+        for (Component component : timings.keySet()) {
+            long path = longestPath(component, longest, next);
+            if (start == null || path > longest.get(start)) start = component;
+        }
+        long criticalPathCost = start == null ? 0 : longest.get(start);
+
+        Set<Component> criticalPath = new HashSet<>();
+        for (Component c = start; c != null; c = next.get(c)) criticalPath.add(c);
+
+        return timings.entrySet().stream().map(e -> {
+                    Component component = e.getKey();
+                    Timing timing = e.getValue();
+                    double share = criticalPathCost == 0 || !criticalPath.contains(component) ? 0 :
+                            (double) timing.cost() / criticalPathCost;
+                    return new Entry(ComponentRef.of(component.type(), component.qualifier()), Duration.ofNanos(timing.introspection),
+                            Duration.ofNanos(timing.self), Duration.ofNanos(timing.total), share);
+                })
+                .sorted(Comparator.comparingDouble(Entry::criticalPathShare).thenComparing(Entry::self).reversed())
+                .toList();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format("%-60s %12s %12s %12s %8s%n",
+                "component", "introspect", "self", "total", "critical"));
+        for (Entry entry : report()) {
+            Component component = entry.component().component();
+            report.append(String.format("%-60s %12d %12d %12d %7.1f%%%n",
+                    component.type().getTypeName() + (component.qualifier() == null ? "" : " " + component.qualifier()),
+                    entry.introspection().toNanos(), entry.self().toNanos(), entry.total().toNanos(),
+                    entry.criticalPathShare() * 100));
+        }
+        return report.toString();
+    }
+
+    private long longestPath(Component component, Map<Component, Long> longest, Map<Component, Component> next) {
+        Long known = longest.get(component);
+        if (known != null) return known;
+        Component heaviest = null;
+        long dependencyPath = 0;
+        for (Component dependency : dependencies.getOrDefault(component, List.of())) {
+            long path = longestPath(dependency, longest, next);
+            if (heaviest == null || path > dependencyPath) {
+                heaviest = dependency;
+                dependencyPath = path;
+            }
+        }
+        if (heaviest != null) next.put(component, heaviest);
+        long path = timings.getOrDefault(component, NONE).cost() + dependencyPath;
+        longest.put(component, path);
+        return path;
+    }
+
+    private Timing timing(Component component) {
+        return timings.computeIfAbsent(component, c -> new Timing());
+    }
+
+    private static final Timing NONE = new Timing();
+
+    private static class Timing {
+        private long introspection;
+        private long self;
+        private long total;
+
+        synchronized void introspected(long nanos) {
+            introspection += nanos;
+        }
+
+        synchronized void constructed(long self, long total) {
+            this.self += self;
+            this.total += total;
+        }
+
+        synchronized long cost() {
+            return introspection + self;
+        }
+    }
+}
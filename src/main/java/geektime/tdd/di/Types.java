@@ -0,0 +1,178 @@
+package geektime.tdd.di;
+
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.*;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+
+final class Types {
+    private static final Map<Type, WeakReference<Type>> interned = new WeakHashMap<>();
+
+    private Types() {
+    }
+
+    static Type canonical(Type type) {
+        if (type instanceof Class<?> c) return c.isPrimitive() ? MethodType.methodType(c).wrap().returnType() : c;
+        if (type instanceof Parameterized || type instanceof Wildcard || type instanceof GenericArray) return type;
+        if (type instanceof ParameterizedType p)
+            return intern(new Parameterized((Class<?>) p.getRawType(), p.getOwnerType() == null ? null : canonical(p.getOwnerType()),
+                    canonical(p.getActualTypeArguments())));
+        if (type instanceof WildcardType w)
+            return intern(new Wildcard(canonical(w.getUpperBounds()), canonical(w.getLowerBounds())));
+        if (type instanceof GenericArrayType a) {
+            Type component = canonical(a.getGenericComponentType());
+            return component instanceof Class<?> c ? c.arrayType() : intern(new GenericArray(component));
+        }
+        throw new IllegalComponentException();
+    }
+
+    static Class<?> raw(Type type) {
+        if (type instanceof Class<?> c) return c;
+        if (type instanceof Parameterized p) return p.raw;
+        if (type instanceof GenericArray a) return raw(a.component).arrayType();
+        if (type instanceof Wildcard w) return raw(w.upper[0]);
+        return raw(canonical(type));
+    }
+
+    private static Type[] canonical(Type[] types) {
+        Type[] canonical = new Type[types.length];
+        for (int i = 0; i < types.length; i++) canonical[i] = canonical(types[i]);
+        return canonical;
+    }
+
+    private static Type intern(Type type) {
+        synchronized (interned) {
+            WeakReference<Type> existing = interned.get(type);
+            Type canonical = existing == null ? null : existing.get();
+            if (canonical != null) return canonical;
+            interned.put(type, new WeakReference<>(type));
+            return type;
+        }
+    }
+
+    static WeakReference<Type> interned(Type type) {
+        synchronized (interned) {
+            return interned.get(type);
+        }
+    }
+
+    private static boolean same(Type[] a, Type[] b) {
+        if (a.length != b.length) return false;
+        for (int i = 0; i < a.length; i++) if (a[i] != b[i]) return false;
+        return true;
+    }
+
+    private static final class Parameterized implements ParameterizedType {
+        private final Class<?> raw;
+        private final Type owner;
+        private final Type[] arguments;
+        private final int hash;
+
+        Parameterized(Class<?> raw, Type owner, Type[] arguments) {
+            this.raw = raw;
+            this.owner = owner;
+            this.arguments = arguments;
+            this.hash = Arrays.hashCode(arguments) ^ Objects.hashCode(owner) ^ raw.hashCode();
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return arguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return raw;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return owner;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Parameterized p && hash == p.hash && raw == p.raw && owner == p.owner && same(arguments, p.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return raw.getTypeName() + Arrays.stream(arguments).map(Type::getTypeName).collect(Collectors.joining(", ", "<", ">"));
+        }
+    }
+
+    private static final class Wildcard implements WildcardType {
+        private final Type[] upper;
+        private final Type[] lower;
+        private final int hash;
+
+        Wildcard(Type[] upper, Type[] lower) {
+            this.upper = upper;
+            this.lower = lower;
+            this.hash = Arrays.hashCode(upper) ^ Arrays.hashCode(lower);
+        }
+
+        @Override
+        public Type[] getUpperBounds() {
+            return upper.clone();
+        }
+
+        @Override
+        public Type[] getLowerBounds() {
+            return lower.clone();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Wildcard w && hash == w.hash && same(upper, w.upper) && same(lower, w.lower);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            if (lower.length > 0) return "? super " + lower[0].getTypeName();
+            return upper[0] == Object.class ? "?" : "? extends " + upper[0].getTypeName();
+        }
+    }
+
+    private static final class GenericArray implements GenericArrayType {
+        private final Type component;
+
+        GenericArray(Type component) {
+            this.component = component;
+        }
+
+        @Override
+        public Type getGenericComponentType() {
+            return component;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof GenericArray a && component == a.component;
+        }
+
+        @Override
+        public int hashCode() {
+            return component.hashCode() * 31;
+        }
+
+        @Override
+        public String toString() {
+            return component.getTypeName() + "[]";
+        }
+    }
+}
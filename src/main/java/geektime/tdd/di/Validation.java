@@ -0,0 +1,5 @@
+package geektime.tdd.di;
+
+public enum Validation {
+    EAGER, PARALLEL, DEFERRED
+}
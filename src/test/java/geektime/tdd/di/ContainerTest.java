@@ -1,10 +1,12 @@
 package geektime.tdd.di;
 
+import com.sun.management.ThreadMXBean;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Named;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -12,7 +14,22 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.internal.util.collections.Sets;
 
 import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
@@ -133,6 +150,132 @@ public class ContainerTest {
                 }).isPresent());
             }
 
+            @Nested
+            public class GenericBinding {
+                interface Repository<T> {
+                }
+
+                static class StringRepository implements Repository<String> {
+                }
+
+                static class IntegerRepository implements Repository<Integer> {
+                }
+
+                static class RepositoryConsumer {
+                    Repository<String> strings;
+                    Provider<Repository<Integer>> integers;
+
+                    @Inject
+                    public RepositoryConsumer(Repository<String> strings, Provider<Repository<Integer>> integers) {
+                        this.strings = strings;
+                        this.integers = integers;
+                    }
+                }
+
+                static class RepositoryModule {
+                    @Provides
+                    Repository<String> strings() {
+                        return new StringRepository();
+                    }
+                }
+
+                static class TypeVariableConstructor<T> {
+                    @Inject
+                    public TypeVariableConstructor(T value) {
+                    }
+                }
+
+                Map<String, List<Set<Integer>>> deep;
+                Map<Integer, List<Set<String>>> unreferenced;
+
+                @Test
+                public void should_bind_each_parameterization_separately() {
+                    config.bind(new ComponentRef<Repository<String>>() {
+                    }, StringRepository.class);
+                    config.bind(new ComponentRef<Repository<Integer>>() {
+                    }, IntegerRepository.class);
+                    Context context = config.getContext();
+
+                    assertTrue(context.get(new ComponentRef<Repository<String>>() {
+                    }).get() instanceof StringRepository);
+                    assertTrue(context.get(new ComponentRef<Repository<Integer>>() {
+                    }).get() instanceof IntegerRepository);
+                }
+
+                @Test
+                public void should_inject_generic_dependencies() {
+                    config.bind(new ComponentRef<Repository<String>>() {
+                    }, StringRepository.class);
+                    config.bind(new ComponentRef<Repository<Integer>>() {
+                    }, new IntegerRepository());
+                    config.bind(RepositoryConsumer.class, RepositoryConsumer.class);
+
+                    RepositoryConsumer consumer = config.getContext().get(ComponentRef.of(RepositoryConsumer.class)).get();
+
+                    assertTrue(consumer.strings instanceof StringRepository);
+                    assertTrue(consumer.integers.get() instanceof IntegerRepository);
+                }
+
+                @Test
+                public void should_bind_generic_return_type_of_provides_method() {
+                    config.install(new RepositoryModule());
+                    Context context = config.getContext();
+
+                    assertTrue(context.get(new ComponentRef<Repository<String>>() {
+                    }).isPresent());
+                    assertFalse(context.get(new ComponentRef<Repository<Integer>>() {
+                    }).isPresent());
+                }
+
+                @Test
+                public void should_use_same_key_for_same_generic_type_from_different_sources() throws Exception {
+                    ComponentRef<Map<String, List<Set<Integer>>>> literal = new ComponentRef<>() {
+                    };
+                    ComponentRef<?> reflected = ComponentRef.of(GenericBinding.class.getDeclaredField("deep").getGenericType());
+
+                    assertEquals(literal.component(), reflected.component());
+                    assertSame(literal.component().type(), reflected.component().type());
+                    assertEquals("java.util.Map<java.lang.String, java.util.List<java.util.Set<java.lang.Integer>>>",
+                            literal.component().type().getTypeName());
+                }
+
+                @Test
+                public void should_not_retain_canonical_type_once_unreferenced() throws Exception {
+                    Type type = GenericBinding.class.getDeclaredField("unreferenced").getGenericType();
+                    Type canonical = Types.canonical(type);
+                    WeakReference<Type> reference = Types.interned(canonical);
+                    assertSame(canonical, reference.get());
+
+                    reference.clear();
+
+                    Type reinterned = Types.canonical(type);
+                    assertEquals(canonical, reinterned);
+                    assertNotSame(canonical, reinterned);
+                    assertSame(reinterned, Types.interned(canonical).get());
+                }
+
+                @Test
+                public void should_only_treat_provider_as_container() {
+                    assertTrue(new ComponentRef<Provider<Repository<String>>>() {
+                    }.isContainer());
+                    assertFalse(new ComponentRef<Repository<String>>() {
+                    }.isContainer());
+                    assertEquals(Repository.class, new ComponentRef<Repository<String>>() {
+                    }.getComponentType());
+                }
+
+                @Test
+                public void should_not_bind_container_ref() {
+                    assertThrows(IllegalComponentException.class, () -> config.bind(new ComponentRef<Provider<Repository<String>>>() {
+                    }, () -> new StringRepository()));
+                }
+
+                @Test
+                public void should_throw_exception_if_dependency_is_type_variable() {
+                    assertThrows(IllegalComponentException.class, () -> config.bind(TypeVariableConstructor.class, TypeVariableConstructor.class));
+                }
+            }
+
             @Nested
             public class WithQualifier {
                 @Test
@@ -215,10 +358,414 @@ public class ContainerTest {
                             config.bind(InjectConstructor.class, InjectConstructor.class, new TestLiteral()));
                 }
 
+                @Test
+                public void should_keep_per_binding_overhead_constant_in_number_of_qualifiers() {
+                    long single = minAllocatedBytes(1);
+                    long many = minAllocatedBytes(65);
+
+                    long perQualifier = (many - single) / 64;
+                    assertTrue(perQualifier * 4 < single, "per qualifier " + perQualifier + " bytes, single binding " + single + " bytes");
+                }
+
+                private long minAllocatedBytes(int qualifiers) {
+                    Annotation[] names = new Annotation[qualifiers];
+                    for (int i = 0; i < qualifiers; i++) names[i] = new NamedLiteral("name" + i);
+                    ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+                    long min = Long.MAX_VALUE;
+                    for (int i = 0; i < 20; i++) {
+                        ContextConfig config = new ContextConfig();
+                        long before = threads.getCurrentThreadAllocatedBytes();
+                        config.bind(InjectConstructor.class, InjectConstructor.class, names);
+                        min = Math.min(min, threads.getCurrentThreadAllocatedBytes() - before);
+                    }
+                    return min;
+                }
+
                 //TODO provider
             }
         }
 
+        @Nested
+        public class ConstantBinding {
+            static class Configured {
+                int timeout;
+                long retries;
+                String name;
+
+                @Inject
+                public Configured(@jakarta.inject.Named("timeout") int timeout) {
+                    this.timeout = timeout;
+                }
+
+                @Inject
+                void install(@jakarta.inject.Named("retries") long retries) {
+                    this.retries = retries;
+                }
+
+                @Inject
+                void name(@jakarta.inject.Named("name") String name) {
+                    this.name = name;
+                }
+            }
+
+            @BeforeEach
+            public void before() {
+                config.bind(int.class, 30, new NamedLiteral("timeout"));
+                config.bind(long.class, 3L, new NamedLiteral("retries"));
+                config.bind(String.class, "service", new NamedLiteral("name"));
+                config.bind(Configured.class, Configured.class);
+            }
+
+            @Test
+            public void should_inject_primitive_and_immutable_constants() {
+                Configured configured = config.getContext().get(ComponentRef.of(Configured.class)).get();
+
+                assertEquals(30, configured.timeout);
+                assertEquals(3L, configured.retries);
+                assertEquals("service", configured.name);
+            }
+
+            @Test
+            public void should_retrieve_primitive_constant_as_boxed_value() {
+                Context context = config.getContext();
+
+                assertEquals(Integer.valueOf(30), context.get(ComponentRef.of(int.class, new NamedLiteral("timeout"))).get());
+                assertEquals(Integer.valueOf(30), context.get(ComponentRef.of(Integer.class, new NamedLiteral("timeout"))).get());
+            }
+
+            @Test
+            public void should_throw_exception_if_primitive_constant_not_found() {
+                config = new ContextConfig();
+                config.bind(Configured.class, Configured.class);
+
+                DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+                assertEquals(new Component(int.class, new NamedLiteral("timeout")), exception.getDependency());
+            }
+        }
+
+        @Nested
+        public class MembersInjection {
+            static class ExternallyCreated {
+                final String id;
+                @Inject
+                Dependency dependency;
+                int timeout;
+
+                ExternallyCreated(String id) {
+                    this.id = id;
+                }
+
+                @Inject
+                void install(@jakarta.inject.Named("timeout") int timeout) {
+                    this.timeout = timeout;
+                }
+            }
+
+            @Test
+            public void should_inject_members_into_existing_instance() {
+                Dependency dependency = new Dependency() {
+                };
+                config.bind(Dependency.class, dependency);
+                config.bind(int.class, 30, new NamedLiteral("timeout"));
+                Context context = config.getContext();
+
+                ExternallyCreated instance = new ExternallyCreated("id");
+                assertSame(instance, context.injectMembers(instance));
+
+                assertSame(dependency, instance.dependency);
+                assertEquals(30, instance.timeout);
+            }
+
+            @Test
+            public void should_inject_resolved_dependencies_on_each_call() {
+                config.bind(Dependency.class, DependencyWithInjectConstructor.class);
+                config.bind(String.class, "dependency");
+                config.bind(int.class, 30, new NamedLiteral("timeout"));
+                Context context = config.getContext();
+
+                ExternallyCreated first = context.injectMembers(new ExternallyCreated("first"));
+                ExternallyCreated second = context.injectMembers(new ExternallyCreated("second"));
+
+                assertNotSame(first.dependency, second.dependency);
+            }
+
+            @Test
+            public void should_throw_exception_if_member_dependency_not_found() {
+                config.bind(Dependency.class, new Dependency() {
+                });
+                Context context = config.getContext();
+
+                DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class,
+                        () -> context.injectMembers(new ExternallyCreated("id")));
+                assertEquals(ExternallyCreated.class, exception.getComponent().type());
+                assertEquals(new Component(int.class, new NamedLiteral("timeout")), exception.getDependency());
+            }
+        }
+
+        @Nested
+        public class AssistedInjection {
+            static class Request {
+                final String id;
+                final int size;
+                final Dependency dependency;
+                @Inject
+                AnotherDependency another;
+
+                @Inject
+                public Request(@Assisted String id, Dependency dependency, @Assisted int size) {
+                    this.id = id;
+                    this.size = size;
+                    this.dependency = dependency;
+                }
+            }
+
+            interface RequestFactory {
+                Request create(String id, int size);
+            }
+
+            interface IllegalRequestFactory {
+                Request create(int size, String id);
+            }
+
+            Dependency dependency = new Dependency() {
+            };
+            AnotherDependency another = new AnotherDependency() {
+            };
+
+            @Test
+            public void should_combine_runtime_arguments_with_container_dependencies() {
+                config.bind(Dependency.class, dependency);
+                config.bind(AnotherDependency.class, another);
+                config.bindFactory(RequestFactory.class, Request.class);
+
+                RequestFactory factory = config.getContext().get(ComponentRef.of(RequestFactory.class)).get();
+                Request request = factory.create("request-1", 42);
+
+                assertEquals("request-1", request.id);
+                assertEquals(42, request.size);
+                assertSame(dependency, request.dependency);
+                assertSame(another, request.another);
+                assertNotSame(request, factory.create("request-1", 42));
+            }
+
+            @Test
+            public void should_reuse_factory_within_context() {
+                config.bind(Dependency.class, dependency);
+                config.bind(AnotherDependency.class, another);
+                config.bindFactory(RequestFactory.class, Request.class);
+                Context context = config.getContext();
+
+                RequestFactory factory = context.get(ComponentRef.of(RequestFactory.class)).get();
+
+                assertSame(factory, context.get(ComponentRef.of(RequestFactory.class)).get());
+                assertSame(factory, context.getAll(List.of(ComponentRef.of(RequestFactory.class))).get(0));
+            }
+
+            @Test
+            public void should_keep_factory_of_each_context_built_from_same_config() {
+                config.bind(Dependency.class, dependency);
+                config.bind(AnotherDependency.class, another);
+                config.bindFactory(RequestFactory.class, Request.class);
+                Context first = config.getContext();
+                Context second = config.getContext();
+
+                RequestFactory factory = first.get(ComponentRef.of(RequestFactory.class)).get();
+                second.get(ComponentRef.of(RequestFactory.class));
+                first.warmUp(1);
+
+                assertSame(factory, first.get(ComponentRef.of(RequestFactory.class)).get());
+                assertNotSame(factory, second.get(ComponentRef.of(RequestFactory.class)).get());
+            }
+
+            @Test
+            public void should_throw_exception_if_factory_dependency_not_found() {
+                config.bind(AnotherDependency.class, another);
+                config.bindFactory(RequestFactory.class, Request.class);
+
+                DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+                assertEquals(RequestFactory.class, exception.getComponent().type());
+                assertEquals(Dependency.class, exception.getDependency().type());
+            }
+
+            @Test
+            public void should_throw_exception_if_factory_parameters_not_match_assisted_parameters() {
+                assertThrows(IllegalComponentException.class, () -> config.bindFactory(IllegalRequestFactory.class, Request.class));
+            }
+        }
+
+        @Nested
+        public class ModuleBinding {
+            static class Client {
+                final String endpoint;
+                final Dependency dependency;
+
+                Client(String endpoint, Dependency dependency) {
+                    this.endpoint = endpoint;
+                    this.dependency = dependency;
+                }
+            }
+
+            static class ClientModule {
+                @Provides
+                @jakarta.inject.Named("endpoint")
+                String endpoint() {
+                    return "https://example.org";
+                }
+
+                @Provides
+                Client client(@jakarta.inject.Named("endpoint") String endpoint, Dependency dependency) {
+                    return new Client(endpoint, dependency);
+                }
+
+                @Provides
+                @Cached
+                static AnotherDependency another() {
+                    return new AnotherDependency() {
+                    };
+                }
+            }
+
+            static class StagingModule extends ClientModule {
+                @Provides
+                @jakarta.inject.Named("endpoint")
+                @Override
+                String endpoint() {
+                    return "https://staging.example.org";
+                }
+            }
+
+            static class MissingDependencyModule {
+                @Provides
+                Client client(Dependency dependency) {
+                    return new Client("", dependency);
+                }
+            }
+
+            static class VoidModule {
+                @Provides
+                void nothing() {
+                }
+            }
+
+            @Test
+            public void should_bind_components_from_provides_methods() {
+                Dependency dependency = new Dependency() {
+                };
+                config.bind(Dependency.class, dependency);
+                config.install(new ClientModule());
+                Context context = config.getContext();
+
+                Client client = context.get(ComponentRef.of(Client.class)).get();
+                assertEquals("https://example.org", client.endpoint);
+                assertSame(dependency, client.dependency);
+                assertEquals("https://example.org", context.get(ComponentRef.of(String.class, new NamedLiteral("endpoint"))).get());
+            }
+
+            @Test
+            public void should_apply_scope_of_provides_method() {
+                config.bind(Dependency.class, new Dependency() {
+                });
+                config.install(new ClientModule());
+                Context context = config.getContext();
+
+                assertSame(context.get(ComponentRef.of(AnotherDependency.class)).get(), context.get(ComponentRef.of(AnotherDependency.class)).get());
+                assertNotSame(context.get(ComponentRef.of(Client.class)).get(), context.get(ComponentRef.of(Client.class)).get());
+            }
+
+            @Test
+            public void should_bind_overriding_provides_method_of_module_subclass() {
+                config.bind(Dependency.class, new Dependency() {
+                });
+                config.install(new StagingModule());
+                Context context = config.getContext();
+
+                assertEquals("https://staging.example.org", context.get(ComponentRef.of(Client.class)).get().endpoint);
+            }
+
+            @Test
+            public void should_throw_exception_if_provides_dependency_not_found() {
+                config.install(new MissingDependencyModule());
+
+                DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+                assertEquals(Client.class, exception.getComponent().type());
+                assertEquals(Dependency.class, exception.getDependency().type());
+            }
+
+            @Test
+            public void should_throw_exception_if_provides_method_returns_void() {
+                assertThrows(IllegalComponentException.class, () -> config.install(new VoidModule()));
+            }
+        }
+
+        @Nested
+        public class LazyDependency {
+            interface Service {
+                String call();
+            }
+
+            static class ExpensiveService implements Service {
+                static int created;
+
+                public ExpensiveService() {
+                    created++;
+                }
+
+                @Override
+                public String call() {
+                    return "called";
+                }
+            }
+
+            static class ServiceConsumer implements TestComponent {
+                Service service;
+
+                @Inject
+                public ServiceConsumer(@Lazy Service service) {
+                    this.service = service;
+                }
+            }
+
+            static class LazyCyclicDependency implements Dependency {
+                @Inject
+                public LazyCyclicDependency(@Lazy TestComponent component) {
+                }
+            }
+
+            @BeforeEach
+            public void before() {
+                ExpensiveService.created = 0;
+            }
+
+            @Test
+            public void should_construct_lazy_dependency_on_first_call() {
+                config.bind(Service.class, ExpensiveService.class);
+                config.bind(TestComponent.class, ServiceConsumer.class);
+
+                ServiceConsumer consumer = (ServiceConsumer) config.getContext().get(ComponentRef.of(TestComponent.class)).get();
+                assertEquals(0, ExpensiveService.created);
+
+                assertEquals("called", consumer.service.call());
+                assertEquals("called", consumer.service.call());
+                assertEquals(1, ExpensiveService.created);
+            }
+
+            @Test
+            public void should_throw_exception_if_lazy_dependency_not_found() {
+                config.bind(TestComponent.class, ServiceConsumer.class);
+
+                DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+                assertEquals(Service.class, exception.getDependency().type());
+            }
+
+            @Test
+            public void should_not_throw_exception_if_cyclic_dependency_via_lazy() {
+                config.bind(TestComponent.class, ComponentWithInjectConstructor.class);
+                config.bind(Dependency.class, LazyCyclicDependency.class);
+
+                assertTrue(config.getContext().get(ComponentRef.of(TestComponent.class)).isPresent());
+            }
+        }
+
         @Nested
         public class DependencyCheck {
 
@@ -372,10 +919,425 @@ public class ContainerTest {
             }
 
             @Nested
-            public class WithQualifier {
+            public class ParallelValidation {
+                @BeforeEach
+                public void before() {
+                    config.validation(Validation.PARALLEL);
+                }
+
                 @Test
-                public void should_throw_exception_if_dependency_with_qualifier_not_found() {
-                    config.bind(Dependency.class, new Dependency() {
+                public void should_throw_exception_if_dependency_not_found() {
+                    config.bind(TestComponent.class, MissingDependencyConstructor.class);
+
+                    DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+                    assertEquals(Dependency.class, exception.getDependency().type());
+                    assertEquals(TestComponent.class, exception.getComponent().type());
+                }
+
+                @Test
+                public void should_throw_exception_if_transitive_cyclic_dependencies_found() {
+                    config.bind(TestComponent.class, ComponentWithInjectConstructor.class);
+                    config.bind(Dependency.class, DependencyDependedOnAnotherDependency.class);
+                    config.bind(AnotherDependency.class, AnotherDependencyDependedOnComponent.class);
+
+                    CyclicDependenciesFound exception = assertThrows(CyclicDependenciesFound.class, () -> config.getContext());
+
+                    assertEquals(Set.of(TestComponent.class, Dependency.class, AnotherDependency.class), Set.of(exception.getComponents()));
+                }
+
+                @Test
+                public void should_not_throw_exception_if_cyclic_dependency_via_provider() {
+                    config.bind(TestComponent.class, CyclicComponentWithInjectConstructor.class);
+                    config.bind(Dependency.class, CyclicDependencyProviderConstructor.class);
+
+                    assertTrue(config.getContext().get(ComponentRef.of(TestComponent.class)).isPresent());
+                }
+
+                @Test
+                public void should_report_same_missing_dependency_every_time() {
+                    for (int i = 0; i < 1000; i++)
+                        config.bind(new Component(TestComponent.class, new NamedLiteral("c" + i)), chain("missing" + i));
+
+                    Component missing = assertThrows(DependencyNotFoundException.class, () -> config.getContext()).getDependency();
+                    for (int i = 0; i < 10; i++)
+                        assertEquals(missing, assertThrows(DependencyNotFoundException.class, () -> config.getContext()).getDependency());
+                }
+
+                @Test
+                public void should_report_first_missing_dependency_in_component_order() {
+                    for (String name : List.of("d", "b", "a", "c"))
+                        config.bind(new Component(TestComponent.class, new NamedLiteral(name)), chain("missing"));
+
+                    DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+                    assertEquals(new Component(TestComponent.class, new NamedLiteral("a")), exception.getComponent());
+                }
+
+                @Test
+                public void should_detect_cycle_in_long_chain() {
+                    int size = 10_000;
+                    for (int i = 0; i < size; i++)
+                        config.bind(new Component(TestComponent.class, new NamedLiteral("c" + i)), chain("c" + (i + 1) % size));
+
+                    assertThrows(CyclicDependenciesFound.class, () -> config.getContext());
+                }
+
+                private ContextConfig.Provider<TestComponent> chain(String next) {
+                    return new ContextConfig.Provider<>() {
+                        @Override
+                        public TestComponent get(Context context) {
+                            return null;
+                        }
+
+                        @Override
+                        public List<ComponentRef<?>> getDependencies() {
+                            return List.of(ComponentRef.of(TestComponent.class, new NamedLiteral(next)));
+                        }
+                    };
+                }
+            }
+
+            @Nested
+            public class RuntimeCycleGuard {
+                static class EagerProviderDependency implements Dependency {
+                    @Inject
+                    public EagerProviderDependency(Provider<TestComponent> component) {
+                        component.get();
+                    }
+                }
+
+                static class SelfProvidingDependency implements Dependency {
+                    @Inject
+                    public SelfProvidingDependency(Provider<Dependency> self) {
+                        self.get();
+                    }
+                }
+
+                @Cached
+                static class CachedEagerProviderDependency extends EagerProviderDependency {
+                    @Inject
+                    public CachedEagerProviderDependency(Provider<TestComponent> component) {
+                        super(component);
+                    }
+                }
+
+                @Test
+                public void should_throw_exception_with_cycle_path_if_provider_called_during_construction() {
+                    config.bind(TestComponent.class, CyclicComponentWithInjectConstructor.class);
+                    config.bind(Dependency.class, EagerProviderDependency.class);
+                    Context context = config.getContext();
+
+                    CyclicDependenciesFound exception = assertThrows(CyclicDependenciesFound.class,
+                            () -> context.get(ComponentRef.of(TestComponent.class)));
+
+                    assertEquals(List.of(new Component(TestComponent.class, null), new Component(Dependency.class, null),
+                            new Component(TestComponent.class, null)), exception.getPath());
+                    assertEquals(Set.of(TestComponent.class, Dependency.class), Set.of(exception.getComponents()));
+                }
+
+                @Test
+                public void should_throw_exception_if_component_provides_itself_during_construction() {
+                    config.bind(Dependency.class, SelfProvidingDependency.class);
+                    Context context = config.getContext();
+
+                    CyclicDependenciesFound exception = assertThrows(CyclicDependenciesFound.class,
+                            () -> context.get(ComponentRef.of(Dependency.class)));
+
+                    assertEquals(List.of(new Component(Dependency.class, null), new Component(Dependency.class, null)), exception.getPath());
+                }
+
+                @Test
+                public void should_throw_exception_if_cycle_closed_through_cached_component() {
+                    config.bind(TestComponent.class, CyclicComponentWithInjectConstructor.class);
+                    config.bind(Dependency.class, CachedEagerProviderDependency.class);
+                    Context context = config.getContext();
+
+                    assertThrows(CyclicDependenciesFound.class, () -> context.get(ComponentRef.of(Dependency.class)));
+                }
+
+                @Test
+                public void should_resolve_again_after_cycle_detected() {
+                    config.bind(TestComponent.class, CyclicComponentWithInjectConstructor.class);
+                    config.bind(Dependency.class, EagerProviderDependency.class);
+                    config.bind(AnotherDependency.class, new AnotherDependency() {
+                    });
+                    Context context = config.getContext();
+
+                    assertThrows(CyclicDependenciesFound.class, () -> context.get(ComponentRef.of(TestComponent.class)));
+                    assertThrows(CyclicDependenciesFound.class, () -> context.get(ComponentRef.of(TestComponent.class)));
+                    assertTrue(context.get(ComponentRef.of(AnotherDependency.class)).isPresent());
+                }
+
+                @Test
+                public void should_not_allocate_when_tracking_resolution_in_steady_state() {
+                    ComponentTable table = new ComponentTable(Map.<Component, ContextConfig.Provider<?>>of(
+                            new Component(TestComponent.class, null), context -> null,
+                            new Component(Dependency.class, null), context -> null), false);
+                    ResolutionStack stack = new ResolutionStack();
+                    ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+                    long min = Long.MAX_VALUE;
+                    for (int run = 0; run < 5; run++) {
+                        long before = threads.getCurrentThreadAllocatedBytes();
+                        for (int i = 0; i < 10_000; i++) {
+                            stack.push(0, table);
+                            stack.push(1, table);
+                            stack.pop();
+                            stack.pop();
+                        }
+                        min = Math.min(min, threads.getCurrentThreadAllocatedBytes() - before);
+                    }
+
+                    assertEquals(0, min);
+                }
+
+                @Test
+                public void should_resolve_deep_chain_through_context() {
+                    int size = 1000;
+                    for (int i = 0; i < size; i++)
+                        config.bind(new Component(TestComponent.class, new NamedLiteral("c" + i)), chain(i + 1 < size ? "c" + (i + 1) : null));
+
+                    assertTrue(config.getContext().get(ComponentRef.of(TestComponent.class, new NamedLiteral("c0"))).isPresent());
+                }
+
+                private ContextConfig.Provider<TestComponent> chain(String next) {
+                    return new ContextConfig.Provider<>() {
+                        @Override
+                        public TestComponent get(Context context) {
+                            if (next != null) context.get(ComponentRef.of(TestComponent.class, new NamedLiteral(next)));
+                            return new TestComponent() {
+                            };
+                        }
+
+                        @Override
+                        public List<ComponentRef<?>> getDependencies() {
+                            return next == null ? List.of() : List.of(ComponentRef.of(TestComponent.class, new NamedLiteral(next)));
+                        }
+                    };
+                }
+            }
+
+            @Nested
+            public class DeferredValidation {
+                @Cached
+                static class ClosingAnotherDependency implements AnotherDependency, AutoCloseable {
+                    boolean closed;
+
+                    @Override
+                    public void close() {
+                        closed = true;
+                    }
+                }
+
+                @BeforeEach
+                public void before() {
+                    config.validation(Validation.DEFERRED);
+                }
+
+                private Context cyclicContext() {
+                    config.bind(TestComponent.class, ComponentWithInjectConstructor.class);
+                    config.bind(Dependency.class, DependencyDependedOnComponent.class);
+                    config.bind(AnotherDependency.class, ClosingAnotherDependency.class);
+                    return config.getContext();
+                }
+
+                @Test
+                public void should_close_context_with_unvalidated_cycle() {
+                    Context context = cyclicContext();
+                    ClosingAnotherDependency instance = (ClosingAnotherDependency) context.get(ComponentRef.of(AnotherDependency.class)).get();
+
+                    ShutdownReport report = context.close(Duration.ofSeconds(1));
+
+                    assertTrue(instance.closed);
+                    assertTrue(report.failures().isEmpty());
+                }
+
+                @Test
+                public void should_rebind_component_outside_unvalidated_cycle() {
+                    Context context = cyclicContext();
+                    ClosingAnotherDependency instance = (ClosingAnotherDependency) context.get(ComponentRef.of(AnotherDependency.class)).get();
+                    AnotherDependency rebound = new AnotherDependency() {
+                    };
+
+                    context.rebind(changes -> changes.bind(AnotherDependency.class, rebound));
+
+                    assertSame(rebound, context.get(ComponentRef.of(AnotherDependency.class)).get());
+                    context.close();
+                    assertTrue(instance.closed);
+                }
+
+                @Test
+                public void should_return_context_before_dependencies_checked() {
+                    config.bind(TestComponent.class, MissingDependencyConstructor.class);
+
+                    assertNotNull(config.getContext());
+                }
+
+                @Test
+                public void should_throw_exception_on_first_get_if_dependency_not_found() {
+                    config.bind(TestComponent.class, MissingDependencyConstructor.class);
+                    Context context = config.getContext();
+
+                    DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class,
+                            () -> context.get(ComponentRef.of(TestComponent.class)));
+                    assertEquals(Dependency.class, exception.getDependency().type());
+                    assertEquals(TestComponent.class, exception.getComponent().type());
+                }
+
+                @Test
+                public void should_throw_exception_on_first_get_if_cyclic_dependencies_found() {
+                    config.bind(TestComponent.class, ComponentWithInjectConstructor.class);
+                    config.bind(Dependency.class, DependencyDependedOnComponent.class);
+                    Context context = config.getContext();
+
+                    CyclicDependenciesFound exception = assertThrows(CyclicDependenciesFound.class,
+                            () -> context.get(ComponentRef.of(TestComponent.class)));
+                    assertEquals(Set.of(TestComponent.class, Dependency.class), Set.of(exception.getComponents()));
+                }
+
+                @Test
+                public void should_resolve_valid_components_alongside_invalid_ones() {
+                    config.bind(TestComponent.class, MissingDependencyConstructor.class);
+                    config.bind(AnotherDependency.class, new AnotherDependency() {
+                    });
+                    Context context = config.getContext();
+
+                    assertTrue(context.get(ComponentRef.of(AnotherDependency.class)).isPresent());
+                    assertThrows(DependencyNotFoundException.class, () -> context.get(ComponentRef.of(TestComponent.class)));
+                }
+
+                @Test
+                public void should_resolve_component_after_missing_dependency_rebound() {
+                    config.bind(TestComponent.class, MissingDependencyConstructor.class);
+                    Context context = config.getContext();
+
+                    context.rebind(c -> c.bind(Dependency.class, new Dependency() {
+                    }));
+
+                    assertTrue(context.get(ComponentRef.of(TestComponent.class)).isPresent());
+                }
+
+                @Test
+                public void should_check_dependencies_in_background() {
+                    config.bind(TestComponent.class, MissingDependencyConstructor.class);
+                    config.bind(AnotherDependency.class, new AnotherDependency() {
+                    });
+
+                    CompletionException exception = assertThrows(CompletionException.class, () -> config.getContext().validated().join());
+                    assertTrue(exception.getCause() instanceof DependencyNotFoundException);
+                }
+
+                @Test
+                public void should_complete_background_check_for_valid_graph() {
+                    config.bind(TestComponent.class, ComponentWithInjectConstructor.class);
+                    config.bind(Dependency.class, new Dependency() {
+                    });
+
+                    Context context = config.getContext();
+                    context.validated().join();
+
+                    assertTrue(context.get(ComponentRef.of(TestComponent.class)).isPresent());
+                }
+
+                @Test
+                public void should_check_dependencies_when_accessor_created() {
+                    config.bind(TestComponent.class, MissingDependencyConstructor.class);
+                    Context context = config.getContext();
+
+                    assertThrows(DependencyNotFoundException.class, () -> context.accessor(ComponentRef.of(TestComponent.class)));
+                }
+            }
+
+            @Nested
+            public class CompactTable {
+                static final int SIZE = 10_000;
+                final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+                @Test
+                @Tag("benchmark")
+                public void should_store_dependencies_in_less_heap_than_dependency_lists() {
+                    Map<Component, ContextConfig.Provider<?>> graph = graph();
+
+                    long table = Long.MIN_VALUE, lists = Long.MAX_VALUE;
+                    for (int run = 0; run < 3; run++) {
+                        table = Math.max(table, retained(() -> new ComponentTable(graph, false)));
+                        lists = Math.min(lists, retained(() -> graph.entrySet().stream()
+                                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getDependencies()))));
+                    }
+
+                    assertTrue(table * 2 < lists, table + " vs " + lists);
+                }
+
+                @Test
+                public void should_traverse_table_without_allocation() {
+                    ComponentTable table = new ComponentTable(graph(), false);
+
+                    long min = Long.MAX_VALUE;
+                    for (int run = 0; run < 20; run++) {
+                        long before = threads.getCurrentThreadAllocatedBytes();
+                        long edges = 0;
+                        for (int id = 0; id < table.size(); id++)
+                            for (int edge = table.start(id); edge < table.end(id); edge++)
+                                if (table.isConstruction(edge)) edges += table.target(edge);
+                        min = Math.min(min, threads.getCurrentThreadAllocatedBytes() - before);
+                        assertTrue(edges > 0);
+                    }
+
+                    assertTrue(min < 1024, String.valueOf(min));
+                }
+
+                @Test
+                public void should_order_dependencies_before_dependents() {
+                    ComponentTable table = new ComponentTable(graph(), true);
+
+                    int[] position = new int[table.size()];
+                    int[] order = table.order();
+                    for (int i = 0; i < order.length; i++) position[order[i]] = i;
+                    for (int id = 0; id < table.size(); id++)
+                        for (int edge = table.start(id); edge < table.end(id); edge++)
+                            assertTrue(position[table.target(edge)] < position[id]);
+                }
+
+                private long retained(Supplier<Object> representation) {
+                    Object[] copies = new Object[3];
+                    long before = used();
+                    for (int i = 0; i < copies.length; i++) copies[i] = representation.get();
+                    long after = used();
+                    Reference.reachabilityFence(copies);
+                    return (after - before) / copies.length;
+                }
+
+                private long used() {
+                    Runtime runtime = Runtime.getRuntime();
+                    for (int i = 0; i < 3; i++) System.gc();
+                    return runtime.totalMemory() - runtime.freeMemory();
+                }
+
+                private Map<Component, ContextConfig.Provider<?>> graph() {
+                    Map<Component, ContextConfig.Provider<?>> graph = new HashMap<>();
+                    for (int i = 0; i < SIZE; i++) {
+                        int next = i;
+                        graph.put(new Component(TestComponent.class, new NamedLiteral("c" + i)), new ContextConfig.Provider<TestComponent>() {
+                            @Override
+                            public TestComponent get(Context context) {
+                                return null;
+                            }
+
+                            @Override
+                            public List<ComponentRef<?>> getDependencies() {
+                                return IntStream.rangeClosed(next + 1, next + 3).filter(d -> d < SIZE)
+                                        .<ComponentRef<?>>mapToObj(d -> ComponentRef.of(TestComponent.class, new NamedLiteral("c" + d))).toList();
+                            }
+                        });
+                    }
+                    return graph;
+                }
+            }
+
+            @Nested
+            public class WithQualifier {
+                @Test
+                public void should_throw_exception_if_dependency_with_qualifier_not_found() {
+                    config.bind(Dependency.class, new Dependency() {
                     });
                     config.bind(InjectConstructor.class, InjectConstructor.class, new NamedLiteral("Owner"));
 
@@ -418,13 +1380,1226 @@ public class ContainerTest {
     }
 
     @Nested
-    public class DependenciesSelection {
+    public class WarmUp {
+        static class CountingComponent implements TestComponent {
+            static int created;
+
+            @Inject
+            public CountingComponent(Dependency dependency) {
+                created++;
+            }
+        }
+
+        @Pooled
+        static class PooledAnotherDependency implements AnotherDependency {
+        }
+
+        @Cached
+        static class CachedAnotherDependency implements AnotherDependency, AutoCloseable {
+            static int created;
+            static int closed;
+
+            public CachedAnotherDependency() {
+                created++;
+            }
+
+            @Override
+            public void close() {
+                closed++;
+            }
+        }
+
+        static class AnotherDependencyConsumer {
+            @Inject
+            public AnotherDependencyConsumer(AnotherDependency dependency, Provider<AnotherDependency> provider) {
+                provider.get();
+            }
+        }
+
+        @BeforeEach
+        public void before() {
+            CountingComponent.created = 0;
+            CachedAnotherDependency.created = 0;
+            CachedAnotherDependency.closed = 0;
+            config.bind(Dependency.class, new Dependency() {
+            });
+            config.bind(TestComponent.class, CountingComponent.class);
+        }
+
+        @Test
+        public void should_exercise_each_provider_given_times() {
+            Map<ComponentRef<?>, Duration> elapsed = config.getContext().warmUp(5);
+
+            assertEquals(5, CountingComponent.created);
+            assertEquals(Set.of(ComponentRef.of(Dependency.class), ComponentRef.of(TestComponent.class)), elapsed.keySet());
+        }
+
+        @Test
+        public void should_only_warm_up_chosen_roots() {
+            Map<ComponentRef<?>, Duration> elapsed = config.getContext().warmUp(3, ComponentRef.of(Dependency.class));
+
+            assertEquals(0, CountingComponent.created);
+            assertEquals(Set.of(ComponentRef.of(Dependency.class)), elapsed.keySet());
+        }
+
+        @Test
+        public void should_warm_up_compiled_providers_used_by_get() {
+            StartupProfiler profiler = new StartupProfiler();
+            config.profile(profiler);
+
+            config.getContext().warmUp(3, ComponentRef.of(TestComponent.class));
+
+            StartupProfiler.Entry entry = profiler.report().stream()
+                    .filter(e -> e.component().equals(ComponentRef.of(TestComponent.class))).findFirst().get();
+            assertTrue(entry.total().toNanos() > 0);
+        }
+
+        @Test
+        public void should_not_take_pooled_instances_while_warming_up() {
+            config.bind(AnotherDependency.class, PooledAnotherDependency.class);
+            config.bind(AnotherDependencyConsumer.class, AnotherDependencyConsumer.class);
+            Context context = config.getContext();
+
+            context.warmUp(3, ComponentRef.of(AnotherDependencyConsumer.class));
+
+            assertEquals(new PoolStats(0, 0), context.poolStats(ComponentRef.of(AnotherDependency.class)).get());
+        }
+
+        @Test
+        public void should_not_fill_cache_while_warming_up() {
+            config.bind(AnotherDependency.class, CachedAnotherDependency.class);
+            config.bind(AnotherDependencyConsumer.class, AnotherDependencyConsumer.class);
+            Context context = config.getContext();
+
+            context.warmUp(3, ComponentRef.of(AnotherDependencyConsumer.class));
+            assertEquals(6, CachedAnotherDependency.created);
+            assertEquals(6, CachedAnotherDependency.closed);
+
+            context.get(ComponentRef.of(AnotherDependency.class));
+            assertEquals(7, CachedAnotherDependency.created);
+        }
 
+        @Test
+        public void should_throw_exception_if_root_not_bound() {
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class,
+                    () -> config.getContext().warmUp(1, ComponentRef.of(AnotherDependency.class)));
+            assertEquals(AnotherDependency.class, exception.getDependency().type());
+        }
     }
 
     @Nested
-    public class LifecycleManagement {
+    public class BatchResolution {
+        static class SharedDependency implements Dependency {
+            static int created;
+
+            public SharedDependency() {
+                created++;
+            }
+        }
+
+        static class AnotherDependencyWithDependency implements AnotherDependency {
+            Dependency dependency;
+
+            @Inject
+            public AnotherDependencyWithDependency(Dependency dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        @BeforeEach
+        public void before() {
+            SharedDependency.created = 0;
+            config.bind(Dependency.class, SharedDependency.class);
+            config.bind(TestComponent.class, ComponentWithInjectConstructor.class);
+            config.bind(AnotherDependency.class, AnotherDependencyWithDependency.class);
+        }
+
+        @Test
+        public void should_resolve_shared_dependencies_once_per_batch() {
+            List<Object> instances = config.getContext().getAll(List.of(ComponentRef.of(TestComponent.class),
+                    ComponentRef.of(AnotherDependency.class), ComponentRef.of(Dependency.class)));
+
+            ComponentWithInjectConstructor component = (ComponentWithInjectConstructor) instances.get(0);
+            AnotherDependencyWithDependency another = (AnotherDependencyWithDependency) instances.get(1);
+            assertSame(component.getDependency(), another.dependency);
+            assertSame(instances.get(2), another.dependency);
+            assertEquals(1, SharedDependency.created);
+        }
+
+        @Test
+        public void should_resolve_new_instances_for_each_batch() {
+            Context context = config.getContext();
+            List<ComponentRef<?>> refs = List.of(ComponentRef.of(TestComponent.class), ComponentRef.of(AnotherDependency.class));
+
+            assertNotSame(context.getAll(refs).get(0), context.getAll(refs).get(0));
+            assertEquals(2, SharedDependency.created);
+        }
+
+        @Test
+        public void should_resolve_container_refs_in_batch() {
+            List<Object> instances = config.getContext().getAll(List.of(new ComponentRef<Provider<Dependency>>() {
+            }));
+
+            assertTrue(((Provider<?>) instances.get(0)).get() instanceof SharedDependency);
+        }
+
+        @Pooled
+        static class PooledDependency implements Dependency {
+        }
+
+        static class LeasingComponent implements TestComponent {
+            Lease<Dependency> dependency;
+
+            @Inject
+            public LeasingComponent(Lease<Dependency> dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        @Test
+        public void should_not_take_pooled_instance_for_lease_dependency() {
+            config = new ContextConfig();
+            config.bind(Dependency.class, PooledDependency.class);
+            config.bind(TestComponent.class, LeasingComponent.class);
+            Context context = config.getContext();
+
+            LeasingComponent component = (LeasingComponent) context.getAll(List.of(ComponentRef.of(TestComponent.class))).get(0);
+            component.dependency.close();
+
+            assertEquals(new PoolStats(0, 1), context.poolStats(ComponentRef.of(Dependency.class)).get());
+            assertSame(component.dependency.get(), context.get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        public void should_allocate_by_plan_not_by_table_size() {
+            for (int i = 0; i < 10_000; i++)
+                config.bind(String.class, "value" + i, new NamedLiteral("s" + i));
+            Context context = config.getContext();
+            List<ComponentRef<?>> refs = List.of(ComponentRef.of(TestComponent.class));
+            ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+            long min = Long.MAX_VALUE;
+            for (int run = 0; run < 20; run++) {
+                long before = threads.getCurrentThreadAllocatedBytes();
+                context.getAll(refs);
+                min = Math.min(min, threads.getCurrentThreadAllocatedBytes() - before);
+            }
+
+            assertTrue(min < 4_000, "allocated " + min + " bytes");
+        }
+
+        @Test
+        public void should_throw_exception_if_batch_component_not_found() {
+            config = new ContextConfig();
+
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class,
+                    () -> config.getContext().getAll(List.of(ComponentRef.of(TestComponent.class))));
+            assertEquals(TestComponent.class, exception.getDependency().type());
+        }
+    }
+
+    @Nested
+    public class Profiling {
+        StartupProfiler profiler = new StartupProfiler();
+
+        static class SlowDependency implements Dependency {
+            public SlowDependency() throws InterruptedException {
+                Thread.sleep(20);
+            }
+        }
+
+        static class SlowComponent implements TestComponent {
+            @Inject
+            public SlowComponent(Dependency dependency) throws InterruptedException {
+                Thread.sleep(5);
+            }
+        }
+
+        @BeforeEach
+        public void before() {
+            config.profile(profiler);
+            config.bind(Dependency.class, SlowDependency.class);
+            config.bind(TestComponent.class, SlowComponent.class);
+            config.bind(AnotherDependency.class, new AnotherDependency() {
+            });
+        }
 
+        @Test
+        public void should_separate_self_time_from_dependency_time() {
+            config.getContext().get(ComponentRef.of(TestComponent.class));
+
+            Map<ComponentRef<?>, StartupProfiler.Entry> entries = new HashMap<>();
+            profiler.report().forEach(e -> entries.put(e.component(), e));
+            StartupProfiler.Entry component = entries.get(ComponentRef.of(TestComponent.class));
+            StartupProfiler.Entry dependency = entries.get(ComponentRef.of(Dependency.class));
+
+            assertTrue(component.total().compareTo(dependency.total()) > 0);
+            assertTrue(component.self().compareTo(dependency.self()) < 0);
+            assertTrue(component.introspection().toNanos() > 0);
+        }
+
+        @Test
+        public void should_rank_components_on_critical_path_first() {
+            Context context = config.getContext();
+            context.get(ComponentRef.of(TestComponent.class));
+            context.get(ComponentRef.of(AnotherDependency.class));
+
+            List<StartupProfiler.Entry> report = profiler.report();
+
+            assertEquals(ComponentRef.of(Dependency.class), report.get(0).component());
+            assertEquals(ComponentRef.of(TestComponent.class), report.get(1).component());
+            assertEquals(0.0, report.get(2).criticalPathShare());
+            assertEquals(1.0, report.get(0).criticalPathShare() + report.get(1).criticalPathShare(), 1e-9);
+        }
+    }
+
+    @Nested
+    public class ConcurrentBinding {
+        static final int MODULES = 8;
+        static final int BINDINGS = 200;
+
+        @Test
+        public void should_register_bindings_from_modules_in_parallel() throws Exception {
+            config.bind(Dependency.class, new Dependency() {
+            });
+            ExecutorService executor = Executors.newFixedThreadPool(MODULES);
+            try {
+                List<Future<?>> modules = new ArrayList<>();
+                for (int m = 0; m < MODULES; m++) {
+                    int module = m;
+                    modules.add(executor.submit(() -> {
+                        for (int i = 0; i < BINDINGS; i++)
+                            config.bind(TestComponent.class, ComponentWithInjectConstructor.class, new NamedLiteral(module + "-" + i));
+                    }));
+                }
+                for (Future<?> module : modules) module.get();
+            } finally {
+                executor.shutdown();
+            }
+
+            Context context = config.getContext();
+            for (int m = 0; m < MODULES; m++)
+                for (int i = 0; i < BINDINGS; i++)
+                    assertTrue(context.get(ComponentRef.of(TestComponent.class, new NamedLiteral(m + "-" + i))).isPresent());
+        }
+
+        @Test
+        public void should_report_duplicate_bindings_in_same_order_regardless_of_registration_order() throws Exception {
+            List<Component> first = null;
+            for (int trial = 0; trial < 10; trial++) {
+                ContextConfig config = new ContextConfig();
+                ExecutorService executor = Executors.newFixedThreadPool(2);
+                try {
+                    List<Future<?>> modules = new ArrayList<>();
+                    for (int m = 0; m < 2; m++)
+                        modules.add(executor.submit(() -> {
+                            for (int i = 0; i < BINDINGS; i++)
+                                config.bind(TestComponent.class, ComponentWithDefaultConstructor.class, new NamedLiteral("shared-" + i));
+                        }));
+                    for (Future<?> module : modules) module.get();
+                } finally {
+                    executor.shutdown();
+                }
+
+                List<Component> conflicts = assertThrows(ConflictingBindingsFound.class, () -> config.getContext()).getComponents();
+                assertEquals(BINDINGS, conflicts.size());
+                if (first == null) first = conflicts;
+                assertEquals(first, conflicts);
+            }
+        }
+
+        @Test
+        public void should_report_duplicate_binding_made_on_same_thread() {
+            config.bind(TestComponent.class, ComponentWithDefaultConstructor.class);
+            config.bind(TestComponent.class, ComponentWithDefaultConstructor.class);
+
+            assertEquals(List.of(new Component(TestComponent.class, null)),
+                    assertThrows(ConflictingBindingsFound.class, () -> config.getContext()).getComponents());
+        }
+
+        @Test
+        public void should_wait_for_bindings_in_progress_before_building_context() throws Exception {
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch proceed = new CountDownLatch(1);
+            config.profile(new StartupProfiler() {
+                @Override
+                <T> T introspect(Component component, Supplier<T> introspection) {
+                    entered.countDown();
+                    try {
+                        proceed.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return super.introspect(component, introspection);
+                }
+            });
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                executor.submit(() -> config.bind(TestComponent.class, ComponentWithDefaultConstructor.class));
+                entered.await();
+                Future<Context> context = executor.submit(() -> config.getContext());
+                Thread.sleep(50);
+                assertFalse(context.isDone());
+
+                proceed.countDown();
+
+                assertTrue(context.get().get(ComponentRef.of(TestComponent.class)).isPresent());
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    public class ParallelIntrospection {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        @BeforeEach
+        public void before() {
+            config.profile(new StartupProfiler() {
+                @Override
+                <T> T introspect(Component component, Supplier<T> introspection) {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(10);
+                        return super.introspect(component, introspection);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    } finally {
+                        active.decrementAndGet();
+                    }
+                }
+            });
+        }
+
+        private void bindComponents() {
+            config.bind(Dependency.class, new Dependency() {
+            });
+            for (int i = 0; i < 20; i++)
+                config.bind(TestComponent.class, ComponentWithInjectConstructor.class, new NamedLiteral("c" + i));
+        }
+
+        @Test
+        public void should_introspect_bindings_concurrently_on_bounded_threads() {
+            config.introspection(4);
+            bindComponents();
+
+            Context context = config.getContext();
+
+            assertTrue(maxActive.get() > 1);
+            assertTrue(maxActive.get() <= 4);
+            for (int i = 0; i < 20; i++)
+                assertTrue(context.get(ComponentRef.of(TestComponent.class, new NamedLiteral("c" + i))).isPresent());
+        }
+
+        @Test
+        public void should_introspect_on_binding_thread_by_default() {
+            bindComponents();
+            assertEquals(1, maxActive.get());
+
+            config.getContext();
+            assertEquals(1, maxActive.get());
+        }
+
+        @Test
+        public void should_introspect_reachable_components_concurrently() {
+            config.introspection(4);
+            bindComponents();
+            ComponentRef<?>[] roots = new ComponentRef<?>[10];
+            for (int i = 0; i < 10; i++) roots[i] = ComponentRef.of(TestComponent.class, new NamedLiteral("c" + i));
+
+            Context context = config.getContext(roots);
+
+            assertTrue(maxActive.get() > 1);
+            assertEquals(10, context.unreachableBindings());
+        }
+
+        @Test
+        public void should_report_introspection_failure_of_each_component() {
+            config.introspection(4);
+            bindComponents();
+            config.bind(TestComponent.class, ComponentWithMultipleInjectConstructors.class, new NamedLiteral("illegal-b"));
+            config.bind(TestComponent.class, ComponentWithoutInjectOrDefaultConstructors.class, new NamedLiteral("illegal-a"));
+
+            IntrospectionFailed exception = assertThrows(IntrospectionFailed.class, () -> config.getContext());
+
+            assertEquals(List.of(new Component(TestComponent.class, new NamedLiteral("illegal-a")), new Component(TestComponent.class, new NamedLiteral("illegal-b"))),
+                    List.copyOf(exception.getFailures().keySet()));
+            assertTrue(exception.getFailures().values().stream().allMatch(e -> e instanceof IllegalComponentException));
+        }
+
+        @Test
+        public void should_report_illegal_component_regardless_of_introspection_threads() {
+            assertThrows(IllegalComponentException.class, () -> config.bind(TestComponent.class, ComponentWithoutInjectOrDefaultConstructors.class));
+
+            config.introspection(4);
+            config.bind(TestComponent.class, ComponentWithoutInjectOrDefaultConstructors.class);
+            assertThrows(IllegalComponentException.class, () -> config.getContext());
+        }
+
+        @Test
+        public void should_throw_exception_if_no_introspection_thread_given() {
+            assertThrows(IllegalArgumentException.class, () -> config.introspection(0));
+        }
+    }
+
+    @Nested
+    public class ReachabilityPruning {
+        static class ProviderComponent implements TestComponent {
+            @Inject
+            Provider<Dependency> dependency;
+        }
+
+        @BeforeEach
+        public void before() {
+            config.bind(String.class, "indirect dependency");
+            config.bind(Dependency.class, DependencyWithInjectConstructor.class);
+            config.bind(AnotherDependency.class, AnotherDependencyDependedOnComponent.class);
+        }
+
+        @Test
+        public void should_only_introspect_deferred_components_reachable_from_roots() {
+            StartupProfiler profiler = new StartupProfiler();
+            ContextConfig config = new ContextConfig();
+            config.profile(profiler);
+            config.introspection(2);
+            config.bind(String.class, "indirect dependency");
+            config.bind(Dependency.class, DependencyWithInjectConstructor.class);
+            config.bind(AnotherDependency.class, AnotherDependencyDependedOnComponent.class);
+
+            config.getContext(ComponentRef.of(Dependency.class));
+
+            assertEquals(Set.of(ComponentRef.of(Dependency.class)),
+                    profiler.report().stream().map(StartupProfiler.Entry::component).collect(Collectors.toSet()));
+        }
+
+        @Test
+        public void should_only_introspect_lazy_components_reachable_from_roots() {
+            StartupProfiler profiler = new StartupProfiler();
+            ContextConfig config = new ContextConfig();
+            config.profile(profiler);
+            config.introspection(Introspection.LAZY);
+            config.bind(String.class, "indirect dependency");
+            config.bind(Dependency.class, DependencyWithInjectConstructor.class);
+            config.bind(AnotherDependency.class, AnotherDependencyDependedOnComponent.class);
+
+            Context context = config.getContext(ComponentRef.of(Dependency.class));
+
+            assertEquals(Set.of(ComponentRef.of(Dependency.class)),
+                    profiler.report().stream().map(StartupProfiler.Entry::component).collect(Collectors.toSet()));
+            assertEquals("indirect dependency", ((DependencyWithInjectConstructor) context.get(ComponentRef.of(Dependency.class)).get()).getDependency());
+        }
+
+        @Test
+        public void should_introspect_all_lazy_components_for_full_context() {
+            StartupProfiler profiler = new StartupProfiler();
+            ContextConfig config = new ContextConfig();
+            config.profile(profiler);
+            config.introspection(Introspection.LAZY);
+            config.bind(Dependency.class, DependencyWithInjectConstructor.class);
+            config.bind(TestComponent.class, ComponentWithoutInjectOrDefaultConstructors.class);
+
+            assertThrows(IllegalComponentException.class, () -> config.getContext());
+            assertEquals(Set.of(ComponentRef.of(Dependency.class), ComponentRef.of(TestComponent.class)),
+                    profiler.report().stream().map(StartupProfiler.Entry::component).collect(Collectors.toSet()));
+        }
+
+        @Test
+        public void should_throw_exception_if_introspection_changed_after_class_bound() {
+            assertThrows(IllegalStateException.class, () -> config.introspection(Introspection.LAZY));
+            assertThrows(IllegalStateException.class, () -> config.introspection(2));
+        }
+
+        @Test
+        public void should_report_number_of_unreachable_bindings() {
+            assertEquals(1, config.getContext(ComponentRef.of(Dependency.class)).unreachableBindings());
+            assertEquals(2, config.getContext(ComponentRef.of(String.class)).unreachableBindings());
+        }
+
+        @Test
+        public void should_not_validate_unreachable_bindings() {
+            Context context = config.getContext(ComponentRef.of(Dependency.class));
+
+            assertTrue(context.get(ComponentRef.of(Dependency.class)).isPresent());
+            assertTrue(context.get(ComponentRef.of(AnotherDependency.class)).isEmpty());
+            assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+        }
+
+        @Test
+        public void should_follow_provider_dependencies() {
+            config.bind(TestComponent.class, ProviderComponent.class);
+
+            Context context = config.getContext(ComponentRef.of(TestComponent.class));
+
+            assertEquals("indirect dependency", ((DependencyWithInjectConstructor) ((ProviderComponent) context.get(ComponentRef.of(TestComponent.class)).get())
+                    .dependency.get()).getDependency());
+            assertEquals(1, context.unreachableBindings());
+        }
+
+        @Test
+        public void should_throw_exception_if_reachable_dependency_not_found() {
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class,
+                    () -> config.getContext(ComponentRef.of(AnotherDependency.class)));
+
+            assertEquals(AnotherDependency.class, exception.getComponent().type());
+            assertEquals(TestComponent.class, exception.getDependency().type());
+        }
+
+        @Test
+        public void should_throw_exception_if_root_not_found() {
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class,
+                    () -> config.getContext(ComponentRef.of(TestComponent.class)));
+
+            assertEquals(TestComponent.class, exception.getDependency().type());
+        }
+    }
+
+    @Nested
+    public class Accessors {
+        @Cached
+        static class CachedComponent implements TestComponent {
+        }
+
+        @Test
+        public void should_resolve_component_through_accessor() {
+            Dependency dependency = new Dependency() {
+            };
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, ComponentWithInjectConstructor.class);
+            Context context = config.getContext();
+
+            Accessor<TestComponent> accessor = context.accessor(ComponentRef.of(TestComponent.class));
+
+            assertSame(dependency, ((ComponentWithInjectConstructor) accessor.get()).getDependency());
+            assertNotSame(accessor.get(), accessor.get());
+        }
+
+        @Test
+        public void should_share_scope_with_context() {
+            config.bind(TestComponent.class, CachedComponent.class);
+            Context context = config.getContext();
+
+            assertSame(context.get(ComponentRef.of(TestComponent.class)).get(), context.accessor(ComponentRef.of(TestComponent.class)).get());
+        }
+
+        @Test
+        public void should_throw_exception_when_accessor_created_for_missing_component() {
+            Context context = config.getContext();
+
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class,
+                    () -> context.accessor(ComponentRef.of(TestComponent.class)));
+            assertEquals(TestComponent.class, exception.getDependency().type());
+        }
+
+        @Test
+        public void should_not_create_accessor_for_container() {
+            config.bind(TestComponent.class, ComponentWithDefaultConstructor.class);
+            Context context = config.getContext();
+
+            assertThrows(IllegalComponentException.class, () -> context.accessor(new ComponentRef<Provider<TestComponent>>() {
+            }));
+        }
+
+        @Test
+        public void should_follow_rebinding() {
+            Dependency original = new Dependency() {
+            };
+            Dependency rotated = new Dependency() {
+            };
+            config.bind(Dependency.class, original);
+            Context context = config.getContext();
+            Accessor<Dependency> accessor = context.accessor(ComponentRef.of(Dependency.class));
+
+            context.rebind(changes -> changes.bind(Dependency.class, rotated));
+
+            assertSame(rotated, accessor.get());
+        }
+    }
+
+    @Nested
+    public class Rebinding {
+        Dependency original = new Dependency() {
+        };
+        Dependency rotated = new Dependency() {
+        };
+
+        @Cached
+        static class CachedConsumer implements TestComponent {
+            Dependency dependency;
+
+            @Inject
+            public CachedConsumer(Dependency dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        @Cached
+        static class CachedAnotherDependency implements AnotherDependency {
+        }
+
+        static class ProviderConsumer implements TestComponent {
+            @Inject
+            Provider<Dependency> dependency;
+        }
+
+        static class PinnedComponent implements TestComponent {
+            Dependency dependency;
+
+            @Inject
+            public PinnedComponent(AnotherDependency slow, Dependency dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        static List<String> destroyed = Collections.synchronizedList(new ArrayList<>());
+
+        @Cached
+        static class DestroyedConsumer implements TestComponent {
+            @Inject
+            public DestroyedConsumer(Dependency dependency) {
+            }
+
+            @PreDestroy
+            void destroy() {
+                destroyed.add("cached");
+            }
+        }
+
+        @Pooled
+        static class PooledConsumer implements AnotherDependency, AutoCloseable {
+            @Inject
+            public PooledConsumer(Dependency dependency) {
+            }
+
+            @Override
+            public void close() {
+                destroyed.add("pooled");
+            }
+        }
+
+        @BeforeEach
+        public void before() {
+            destroyed.clear();
+            config.bind(Dependency.class, original);
+        }
+
+        @Test
+        public void should_not_destroy_retired_instances_while_rebinding() {
+            config.bind(TestComponent.class, DestroyedConsumer.class);
+            config.bind(AnotherDependency.class, PooledConsumer.class);
+            Context context = config.getContext();
+            TestComponent held = context.get(ComponentRef.of(TestComponent.class)).get();
+            context.release(ComponentRef.of(AnotherDependency.class), context.get(ComponentRef.of(AnotherDependency.class)).get());
+
+            context.rebind(changes -> changes.bind(Dependency.class, rotated));
+
+            assertEquals(List.of(), destroyed);
+            assertNotSame(held, context.get(ComponentRef.of(TestComponent.class)).get());
+        }
+
+        @Test
+        public void should_destroy_retired_instances_on_close() {
+            config.bind(TestComponent.class, DestroyedConsumer.class);
+            config.bind(AnotherDependency.class, PooledConsumer.class);
+            Context context = config.getContext();
+            context.get(ComponentRef.of(TestComponent.class));
+            context.release(ComponentRef.of(AnotherDependency.class), context.get(ComponentRef.of(AnotherDependency.class)).get());
+            context.rebind(changes -> changes.bind(Dependency.class, rotated));
+            context.get(ComponentRef.of(TestComponent.class));
+
+            context.close();
+
+            assertEquals(List.of("cached", "cached", "pooled"), destroyed.stream().sorted().toList());
+        }
+
+        @Test
+        public void should_return_rebound_instance() {
+            Context context = config.getContext();
+            context.rebind(changes -> changes.bind(Dependency.class, rotated));
+
+            assertSame(rotated, context.get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        public void should_add_new_binding() {
+            Context context = config.getContext();
+            context.rebind(changes -> changes.bind(TestComponent.class, ComponentWithInjectConstructor.class));
+
+            assertSame(original, ((ComponentWithInjectConstructor) context.get(ComponentRef.of(TestComponent.class)).get()).getDependency());
+        }
+
+        @Test
+        public void should_recompile_dependents_of_rebound_component() {
+            config.bind(TestComponent.class, ComponentWithInjectConstructor.class);
+            Context context = config.getContext();
+            context.rebind(changes -> changes.bind(Dependency.class, rotated));
+
+            assertSame(rotated, ((ComponentWithInjectConstructor) context.get(ComponentRef.of(TestComponent.class)).get()).getDependency());
+        }
+
+        @Test
+        public void should_keep_cached_instances_of_unaffected_components_only() {
+            config.bind(TestComponent.class, CachedConsumer.class);
+            config.bind(AnotherDependency.class, CachedAnotherDependency.class);
+            Context context = config.getContext();
+            TestComponent consumer = context.get(ComponentRef.of(TestComponent.class)).get();
+            AnotherDependency unaffected = context.get(ComponentRef.of(AnotherDependency.class)).get();
+
+            context.rebind(changes -> changes.bind(Dependency.class, rotated));
+
+            assertSame(unaffected, context.get(ComponentRef.of(AnotherDependency.class)).get());
+            assertNotSame(consumer, context.get(ComponentRef.of(TestComponent.class)).get());
+            assertSame(rotated, ((CachedConsumer) context.get(ComponentRef.of(TestComponent.class)).get()).dependency);
+        }
+
+        @Test
+        public void should_resolve_provider_against_latest_binding() {
+            config.bind(TestComponent.class, ProviderConsumer.class);
+            Context context = config.getContext();
+            ProviderConsumer consumer = (ProviderConsumer) context.get(ComponentRef.of(TestComponent.class)).get();
+
+            context.rebind(changes -> changes.bind(Dependency.class, rotated));
+
+            assertSame(rotated, consumer.dependency.get());
+        }
+
+        @Test
+        public void should_keep_current_bindings_if_rebound_dependency_not_found() {
+            Context context = config.getContext();
+
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class,
+                    () -> context.rebind(changes -> changes.bind(Dependency.class, DependencyWithInjectConstructor.class)));
+
+            assertEquals(String.class, exception.getDependency().type());
+            assertSame(original, context.get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        public void should_keep_current_bindings_if_rebinding_introduces_cycle() {
+            config.bind(TestComponent.class, ComponentWithInjectConstructor.class);
+            Context context = config.getContext();
+
+            CyclicDependenciesFound exception = assertThrows(CyclicDependenciesFound.class,
+                    () -> context.rebind(changes -> changes.bind(Dependency.class, DependencyDependedOnComponent.class)));
+
+            assertEquals(Set.of(TestComponent.class, Dependency.class), Set.of(exception.getComponents()));
+            assertSame(original, context.get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        public void should_finish_in_flight_get_against_old_bindings() throws Exception {
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch proceed = new CountDownLatch(1);
+            config.bind(new Component(AnotherDependency.class, null), new ContextConfig.Provider<AnotherDependency>() {
+                @Override
+                public AnotherDependency get(Context context) {
+                    entered.countDown();
+                    try {
+                        proceed.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return new AnotherDependency() {
+                    };
+                }
+            });
+            config.bind(TestComponent.class, PinnedComponent.class);
+            Context context = config.getContext();
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<TestComponent> inFlight = executor.submit(() -> context.get(ComponentRef.of(TestComponent.class)).get());
+                entered.await();
+
+                context.rebind(changes -> changes.bind(Dependency.class, rotated));
+                assertSame(rotated, context.get(ComponentRef.of(Dependency.class)).get());
+                proceed.countDown();
+
+                assertSame(original, ((PinnedComponent) inFlight.get()).dependency);
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    public class DependenciesSelection {
+
+    }
+
+    @Nested
+    public class LifecycleManagement {
+        @Nested
+        public class Pooling {
+            @Pooled(capacity = 2)
+            static class PooledComponent implements TestComponent {
+            }
+
+            @BeforeEach
+            public void before() {
+                config.bind(TestComponent.class, PooledComponent.class);
+            }
+
+            @Test
+            public void should_reuse_released_instance() {
+                Context context = config.getContext();
+                ComponentRef<TestComponent> ref = ComponentRef.of(TestComponent.class);
+
+                TestComponent instance = context.get(ref).get();
+                context.release(ref, instance);
+
+                assertSame(instance, context.get(ref).get());
+                assertEquals(new PoolStats(1, 1), context.poolStats(ref).get());
+            }
+
+            @Test
+            public void should_construct_new_instance_if_pool_empty() {
+                Context context = config.getContext();
+                ComponentRef<TestComponent> ref = ComponentRef.of(TestComponent.class);
+
+                assertNotSame(context.get(ref).get(), context.get(ref).get());
+                assertEquals(new PoolStats(0, 2), context.poolStats(ref).get());
+            }
+
+            @Test
+            public void should_return_leased_instance_to_pool_when_closed() {
+                Context context = config.getContext();
+
+                TestComponent leased;
+                try (Lease<TestComponent> lease = context.get(new ComponentRef<Lease<TestComponent>>() {
+                }).get()) {
+                    leased = lease.get();
+                }
+
+                assertSame(leased, context.get(ComponentRef.of(TestComponent.class)).get());
+            }
+
+            @Test
+            public void should_hand_out_pooled_instance_from_provider() {
+                Context context = config.getContext();
+                TestComponent instance = context.get(ComponentRef.of(TestComponent.class)).get();
+                context.release(ComponentRef.of(TestComponent.class), instance);
+
+                Provider<TestComponent> provider = context.get(new ComponentRef<Provider<TestComponent>>() {
+                }).get();
+                assertSame(instance, provider.get());
+            }
+
+            @Test
+            public void should_not_keep_more_instances_than_capacity() {
+                Context context = config.getContext();
+                ComponentRef<TestComponent> ref = ComponentRef.of(TestComponent.class);
+                List<TestComponent> instances = List.of(context.get(ref).get(), context.get(ref).get(), context.get(ref).get());
+                instances.forEach(i -> context.release(ref, i));
+
+                for (int i = 0; i < 3; i++) context.get(ref);
+
+                assertEquals(2, context.poolStats(ref).get().hits());
+            }
+
+            @Test
+            public void should_not_report_stats_for_unpooled_component() {
+                config.bind(Dependency.class, new Dependency() {
+                });
+                assertTrue(config.getContext().poolStats(ComponentRef.of(Dependency.class)).isEmpty());
+            }
+        }
+
+        @Nested
+        public class Closing {
+            static List<String> destroyed = Collections.synchronizedList(new ArrayList<>());
+
+            @Cached
+            static class ClosingDependency implements Dependency, AutoCloseable {
+                @Override
+                public void close() {
+                    destroyed.add("dependency");
+                }
+            }
+
+            @Cached
+            static class ClosingComponent implements TestComponent {
+                @Inject
+                public ClosingComponent(Dependency dependency) {
+                }
+
+                @PreDestroy
+                void destroy() {
+                    destroyed.add("component");
+                }
+            }
+
+            @Pooled
+            static class PooledClosing implements AnotherDependency, AutoCloseable {
+                @Override
+                public void close() {
+                    destroyed.add("pooled");
+                }
+            }
+
+            @Cached
+            static class SlowClosing implements AutoCloseable {
+                @Override
+                public void close() throws InterruptedException {
+                    Thread.sleep(200);
+                    destroyed.add("slow");
+                }
+            }
+
+            static CountDownLatch closing;
+
+            @Pooled
+            static class FailingPooled implements AnotherDependency, AutoCloseable {
+                @Override
+                public void close() {
+                    destroyed.add("pooled");
+                    if (destroyed.size() == 1) throw new IllegalStateException("first");
+                }
+            }
+
+            @Cached
+            static class OverlappingClosing implements AutoCloseable {
+                @Override
+                public void close() throws InterruptedException {
+                    closing.countDown();
+                    destroyed.add(closing.await(5, TimeUnit.SECONDS) ? "overlapped" : "alone");
+                }
+            }
+
+            @BeforeEach
+            public void before() {
+                destroyed.clear();
+                closing = new CountDownLatch(2);
+            }
+
+            @Test
+            public void should_close_dependents_before_dependencies() {
+                config.bind(Dependency.class, ClosingDependency.class);
+                config.bind(TestComponent.class, ClosingComponent.class);
+                Context context = config.getContext();
+                context.get(ComponentRef.of(TestComponent.class));
+
+                context.close();
+
+                assertEquals(List.of("component", "dependency"), destroyed);
+            }
+
+            @Test
+            public void should_close_idle_pooled_instances() {
+                config.bind(AnotherDependency.class, PooledClosing.class);
+                Context context = config.getContext();
+                ComponentRef<AnotherDependency> ref = ComponentRef.of(AnotherDependency.class);
+                AnotherDependency first = context.get(ref).get();
+                AnotherDependency second = context.get(ref).get();
+                context.release(ref, first);
+                context.release(ref, second);
+
+                ShutdownReport report = context.close(Duration.ofSeconds(1));
+
+                assertEquals(List.of("pooled", "pooled"), destroyed);
+                assertTrue(report.elapsed().containsKey(ref));
+            }
+
+            @Test
+            public void should_close_independent_components_in_parallel() {
+                config.bind(OverlappingClosing.class, OverlappingClosing.class, new NamedLiteral("a"), new NamedLiteral("b"));
+                Context context = config.getContext();
+                context.get(ComponentRef.of(OverlappingClosing.class, new NamedLiteral("a")));
+                context.get(ComponentRef.of(OverlappingClosing.class, new NamedLiteral("b")));
+
+                ShutdownReport report = context.close(Duration.ofSeconds(10));
+
+                assertEquals(List.of("overlapped", "overlapped"), destroyed);
+                assertTrue(report.timedOut().isEmpty());
+            }
+
+            @Test
+            public void should_destroy_remaining_pooled_instances_if_one_fails() {
+                config.bind(AnotherDependency.class, FailingPooled.class);
+                Context context = config.getContext();
+                ComponentRef<AnotherDependency> ref = ComponentRef.of(AnotherDependency.class);
+                List<AnotherDependency> instances = List.of(context.get(ref).get(), context.get(ref).get(), context.get(ref).get());
+                instances.forEach(instance -> context.release(ref, instance));
+
+                ShutdownReport report = context.close(Duration.ofSeconds(1));
+
+                assertEquals(List.of("pooled", "pooled", "pooled"), destroyed);
+                assertEquals("first", report.failures().get(ref).getMessage());
+            }
+
+            @Test
+            public void should_destroy_leased_instance_released_after_close() {
+                config.bind(AnotherDependency.class, PooledClosing.class);
+                Context context = config.getContext();
+                Lease<AnotherDependency> lease = context.get(new ComponentRef<Lease<AnotherDependency>>() {
+                }).get();
+
+                context.close();
+                assertEquals(List.of(), destroyed);
+
+                lease.close();
+                assertEquals(List.of("pooled"), destroyed);
+            }
+
+            @Test
+            public void should_destroy_pooled_instance_released_to_closed_context() {
+                config.bind(AnotherDependency.class, PooledClosing.class);
+                Context context = config.getContext();
+                ComponentRef<AnotherDependency> ref = ComponentRef.of(AnotherDependency.class);
+                AnotherDependency instance = context.get(ref).get();
+
+                context.close();
+                context.release(ref, instance);
+
+                assertEquals(List.of("pooled"), destroyed);
+            }
+
+            @Test
+            public void should_not_resolve_components_after_close() {
+                config.bind(Dependency.class, ClosingDependency.class);
+                Context context = config.getContext();
+
+                context.close();
+
+                assertThrows(IllegalStateException.class, () -> context.get(ComponentRef.of(Dependency.class)));
+                assertThrows(IllegalStateException.class, () -> context.getAll(List.of(ComponentRef.of(Dependency.class))));
+            }
+
+            @Test
+            public void should_report_component_exceeding_timeout() {
+                config.bind(SlowClosing.class, SlowClosing.class);
+                Context context = config.getContext();
+                context.get(ComponentRef.of(SlowClosing.class));
+
+                ShutdownReport report = context.close(Duration.ofMillis(20));
+
+                assertEquals(Set.of(ComponentRef.of(SlowClosing.class)), report.timedOut());
+            }
+        }
+
+        @Nested
+        public class Caching {
+            @Cached
+            static class CachedComponent implements TestComponent {
+                static AtomicInteger created = new AtomicInteger();
+
+                public CachedComponent() throws InterruptedException {
+                    created.incrementAndGet();
+                    Thread.sleep(10);
+                }
+            }
+
+            ComponentRef<TestComponent> a = ComponentRef.of(TestComponent.class, new NamedLiteral("a"));
+            ComponentRef<TestComponent> b = ComponentRef.of(TestComponent.class, new NamedLiteral("b"));
+            ComponentRef<TestComponent> c = ComponentRef.of(TestComponent.class, new NamedLiteral("c"));
+
+            @Cached
+            static class ClosingCached implements AnotherDependency, AutoCloseable {
+                static List<Object> closed = Collections.synchronizedList(new ArrayList<>());
+
+                @Override
+                public void close() {
+                    closed.add(this);
+                }
+            }
+
+            @BeforeEach
+            public void before() {
+                CachedComponent.created.set(0);
+                ClosingCached.closed.clear();
+                config.bind(TestComponent.class, CachedComponent.class,
+                        new NamedLiteral("a"), new NamedLiteral("b"), new NamedLiteral("c"));
+            }
+
+            @Test
+            public void should_keep_one_instance_per_qualifier() {
+                Context context = config.getContext();
+
+                assertSame(context.get(a).get(), context.get(a).get());
+                assertNotSame(context.get(a).get(), context.get(b).get());
+                assertEquals(2, CachedComponent.created.get());
+            }
+
+            @Test
+            public void should_evict_least_recently_used_instance_when_full() {
+                config.cache(2, null, false);
+                Context context = config.getContext();
+                TestComponent first = context.get(a).get();
+                TestComponent second = context.get(b).get();
+                context.get(a);
+                context.get(c);
+
+                assertSame(first, context.get(a).get());
+                assertNotSame(second, context.get(b).get());
+            }
+
+            @Test
+            public void should_expire_instance_after_access_timeout() throws InterruptedException {
+                config.cache(16, Duration.ofMillis(1), true);
+                Context context = config.getContext();
+                TestComponent instance = context.get(a).get();
+                Thread.sleep(5);
+
+                assertNotSame(instance, context.get(a).get());
+            }
+
+            @Test
+            public void should_keep_recently_read_entry_under_churn() {
+                List<Object> evicted = new ArrayList<>();
+                ComponentCache cache = new ComponentCache(100, null, false, evicted::add);
+                Object hot = cache.get("hot", Object::new);
+                for (int i = 0; i < 10_000; i++) {
+                    assertSame(hot, cache.get("hot", Object::new));
+                    cache.get(i, Object::new);
+                }
+
+                assertEquals(100, cache.size());
+                assertEquals(10_000 + 1 - 100, evicted.size());
+                assertFalse(evicted.contains(hot));
+            }
+
+            @Test
+            public void should_destroy_instance_evicted_when_full() {
+                config.bind(AnotherDependency.class, ClosingCached.class, new NamedLiteral("a"), new NamedLiteral("b"));
+                config.cache(1, null, false);
+                Context context = config.getContext();
+                AnotherDependency first = context.get(ComponentRef.of(AnotherDependency.class, new NamedLiteral("a"))).get();
+
+                context.get(ComponentRef.of(AnotherDependency.class, new NamedLiteral("b")));
+
+                assertEquals(List.of(first), ClosingCached.closed);
+            }
+
+            @Test
+            public void should_destroy_instance_expired_after_access_timeout() throws InterruptedException {
+                config.bind(AnotherDependency.class, ClosingCached.class);
+                config.cache(16, Duration.ofMillis(1), false);
+                Context context = config.getContext();
+                AnotherDependency instance = context.get(ComponentRef.of(AnotherDependency.class)).get();
+                Thread.sleep(5);
+
+                context.get(ComponentRef.of(AnotherDependency.class));
+
+                assertEquals(List.of(instance), ClosingCached.closed);
+            }
+
+            @Test
+            public void should_load_same_component_once_under_concurrent_access() throws Exception {
+                Context context = config.getContext();
+                ExecutorService executor = Executors.newFixedThreadPool(8);
+                try {
+                    List<Future<TestComponent>> results = new ArrayList<>();
+                    for (int i = 0; i < 8; i++) results.add(executor.submit(() -> context.get(a).get()));
+                    Set<TestComponent> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+                    for (Future<TestComponent> result : results) instances.add(result.get());
+
+                    assertEquals(1, instances.size());
+                    assertEquals(1, CachedComponent.created.get());
+                } finally {
+                    executor.shutdown();
+                }
+            }
+        }
     }
 }
 
@@ -0,0 +1,165 @@
+package geektime.tdd.di;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContextConcurrencyTest {
+    static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    static final int ITERATIONS = 2_000;
+
+    ContextConfig config;
+
+    @BeforeEach
+    public void setup() {
+        config = new ContextConfig();
+        config.bind(Dependency.class, new Dependency() {
+        });
+        config.bind(Dependency.class, new Dependency() {
+        }, new NamedLiteral("ChosenOne"));
+        config.bind(TestComponent.class, ComponentWithInjectConstructor.class);
+        config.bind(TestComponent.class, QualifiedComponent.class, new SkywalkerLiteral());
+    }
+
+    static class QualifiedComponent implements TestComponent {
+        @Inject
+        public QualifiedComponent(@jakarta.inject.Named("ChosenOne") Dependency dependency, Provider<TestComponent> component) {
+        }
+    }
+
+    @Cached
+    static class CachedComponent implements AnotherDependency {
+        static AtomicInteger created = new AtomicInteger();
+
+        public CachedComponent() {
+            created.incrementAndGet();
+        }
+    }
+
+    @Pooled(capacity = 8)
+    static class PooledComponent implements AnotherDependency {
+    }
+
+    static List<Supplier<ExecutorService>> executors() {
+        List<Supplier<ExecutorService>> executors = new ArrayList<>();
+        executors.add(() -> Executors.newFixedThreadPool(THREADS));
+        try {
+            var virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            executors.add(() -> {
+                try {
+                    return (ExecutorService) virtual.invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } catch (NoSuchMethodException e) {
+            // virtual threads need Java 21+; platform threads only on older runtimes
+        }
+        return executors;
+    }
+
+    static void hammer(ExecutorService executor, int tasks, Callable<?> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++)
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < ITERATIONS; j++) task.call();
+                return null;
+            }));
+        start.countDown();
+        try {
+            for (Future<?> future : futures) future.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Nested
+    public class Resolution {
+        @Test
+        public void should_resolve_mixed_refs_concurrently() throws Exception {
+            Context context = config.getContext();
+            ComponentRef<TestComponent> unqualified = ComponentRef.of(TestComponent.class);
+            ComponentRef<TestComponent> qualified = ComponentRef.of(TestComponent.class, new SkywalkerLiteral());
+            ComponentRef<Provider<TestComponent>> provider = new ComponentRef<>() {
+            };
+
+            for (Supplier<ExecutorService> executor : executors())
+                hammer(executor.get(), THREADS, () -> {
+                    assertTrue(context.get(unqualified).get() instanceof ComponentWithInjectConstructor);
+                    assertTrue(context.get(qualified).get() instanceof QualifiedComponent);
+                    assertTrue(context.get(provider).get().get() instanceof ComponentWithInjectConstructor);
+                    return null;
+                });
+        }
+
+        @Test
+        public void should_build_contexts_concurrently() throws Exception {
+            for (Supplier<ExecutorService> executor : executors())
+                hammer(executor.get(), THREADS, () -> config.getContext().get(ComponentRef.of(TestComponent.class)).get());
+        }
+    }
+
+    @Nested
+    public class Scopes {
+        @Test
+        public void should_not_duplicate_cached_component() throws Exception {
+            config.bind(AnotherDependency.class, CachedComponent.class);
+
+            for (Supplier<ExecutorService> executor : executors()) {
+                CachedComponent.created.set(0);
+                Context context = config.getContext();
+                Set<Object> instances = ConcurrentHashMap.newKeySet();
+                hammer(executor.get(), THREADS, () -> instances.add(context.get(ComponentRef.of(AnotherDependency.class)).get()));
+
+                assertEquals(1, instances.size());
+                assertEquals(1, CachedComponent.created.get());
+            }
+        }
+
+        @Test
+        public void should_not_lease_pooled_instance_to_two_holders() throws Exception {
+            config.bind(AnotherDependency.class, PooledComponent.class);
+
+            for (Supplier<ExecutorService> executor : executors()) {
+                Context context = config.getContext();
+                Set<Object> held = ConcurrentHashMap.newKeySet();
+                hammer(executor.get(), THREADS, () -> {
+                    try (Lease<AnotherDependency> lease = context.get(new ComponentRef<Lease<AnotherDependency>>() {
+                    }).get()) {
+                        assertTrue(held.add(lease.get()));
+                        held.remove(lease.get());
+                    }
+                    return null;
+                });
+
+                PoolStats stats = context.poolStats(ComponentRef.of(AnotherDependency.class)).get();
+                assertEquals((long) THREADS * ITERATIONS, stats.hits() + stats.misses());
+            }
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void should_report_throughput_scaling() throws Exception {
+        Context context = config.getContext();
+        ComponentRef<TestComponent> ref = ComponentRef.of(TestComponent.class, new SkywalkerLiteral());
+        for (int threads = 1; threads <= THREADS; threads *= 2) {
+            long start = System.nanoTime();
+            hammer(Executors.newFixedThreadPool(threads), threads, () -> context.get(ref).get());
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%3d threads: %,12.0f gets/s%n", threads, threads * ITERATIONS / seconds);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package geektime.tdd.di;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Provider;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+enum GraphGenerator {
+    CHAIN {
+        @Override
+        List<ComponentRef<?>> generate(ContextConfig config, int size) {
+            List<ComponentRef<?>> roots = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                boolean tail = i % CHAIN_DEPTH == CHAIN_DEPTH - 1 || i == size - 1;
+                config.bind(node(i), tail ? new Node.Synthetic() : new Node.Synthetic(ref(i + 1)));
+                if (i % CHAIN_DEPTH == 0) roots.add(ref(i));
+            }
+            return roots;
+        }
+    },
+    FAN_OUT {
+        @Override
+        List<ComponentRef<?>> generate(ContextConfig config, int size) {
+            config.bind(node(0), new Node.Synthetic(IntStream.range(1, size).mapToObj(GraphGenerator::ref).toArray(ComponentRef[]::new)));
+            for (int i = 1; i < size; i++) config.bind(node(i), new Node.Synthetic());
+            return List.of(ref(0));
+        }
+    },
+    DIAMOND {
+        @Override
+        List<ComponentRef<?>> generate(ContextConfig config, int size) {
+            List<ComponentRef<?>> roots = new ArrayList<>();
+            for (int i = 0; i < size; i += 4) {
+                int top = i, left = i + 1, right = i + 2, bottom = i + 3;
+                config.bind(node(top), new Node.Synthetic(ref(left), ref(right)));
+                config.bind(node(left), new Node.Synthetic(ref(bottom)));
+                config.bind(node(right), new Node.Synthetic(ref(bottom)));
+                config.bind(node(bottom), new Node.Synthetic());
+                roots.add(ref(top));
+            }
+            return roots;
+        }
+    },
+    HIERARCHY {
+        @Override
+        List<ComponentRef<?>> generate(ContextConfig config, int size) {
+            config.bind(Dependency.class, new Dependency() {
+            });
+            for (int i = 0; i < size; i++) config.bind(Node.class, Node.Level5.class, new NamedLiteral("n" + i));
+            return sample(size);
+        }
+    },
+    QUALIFIED {
+        @Override
+        List<ComponentRef<?>> generate(ContextConfig config, int size) {
+            for (String qualifier : List.of("q0", "q1", "q2", "q3"))
+                config.bind(Dependency.class, new Dependency() {
+                }, new NamedLiteral(qualifier));
+            for (int i = 0; i < size; i++) config.bind(Node.class, Node.Qualified.class, new NamedLiteral("n" + i));
+            return sample(size);
+        }
+    },
+    PROVIDER_CYCLE {
+        @Override
+        List<ComponentRef<?>> generate(ContextConfig config, int size) {
+            for (int i = 0; i < size; i++)
+                config.bind(node(i), new Node.Synthetic(ComponentRef.of(NODE_PROVIDER, new NamedLiteral("n" + (i + 1) % size))));
+            return sample(size);
+        }
+    };
+
+    static final int CHAIN_DEPTH = 256;
+    static final int SAMPLES = 100;
+    static final Type NODE_PROVIDER;
+
+    static {
+        try {
+            NODE_PROVIDER = Node.Synthetic.class.getDeclaredField("provider").getGenericType();
+        } catch (NoSuchFieldException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    abstract List<ComponentRef<?>> generate(ContextConfig config, int size);
+
+    static Component node(int i) {
+        return new Component(Node.class, new NamedLiteral("n" + i));
+    }
+
+    static ComponentRef<Node> ref(int i) {
+        return ComponentRef.of(Node.class, new NamedLiteral("n" + i));
+    }
+
+    static List<ComponentRef<?>> sample(int size) {
+        return IntStream.range(0, Math.min(size, SAMPLES)).<ComponentRef<?>>mapToObj(i -> ref(i * (size / Math.min(size, SAMPLES)))).toList();
+    }
+
+    interface Node {
+        record Synthetic(ComponentRef<?>... dependencies) implements Node, ContextConfig.Provider<Node> {
+            static Provider<Node> provider;
+
+            @Override
+            public Node get(Context context) {
+                Object[] resolved = new Object[dependencies.length];
+                for (int i = 0; i < dependencies.length; i++) resolved[i] = context.get(dependencies[i]).get();
+                return new Synthetic();
+            }
+
+            @Override
+            public List<ComponentRef<?>> getDependencies() {
+                return List.of(dependencies);
+            }
+        }
+
+        class Level0 implements Node {
+            Dependency dependency;
+
+            @Inject
+            void inject(Dependency dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        class Level1 extends Level0 {
+            @Inject
+            @Override
+            void inject(Dependency dependency) {
+                super.inject(dependency);
+            }
+        }
+
+        class Level2 extends Level1 {
+            @Inject
+            @Override
+            void inject(Dependency dependency) {
+                super.inject(dependency);
+            }
+        }
+
+        class Level3 extends Level2 {
+            @Inject
+            @Override
+            void inject(Dependency dependency) {
+                super.inject(dependency);
+            }
+        }
+
+        class Level4 extends Level3 {
+            @Inject
+            @Override
+            void inject(Dependency dependency) {
+                super.inject(dependency);
+            }
+        }
+
+        class Level5 extends Level4 {
+            @Inject
+            Dependency field;
+
+            @Inject
+            @Override
+            void inject(Dependency dependency) {
+                super.inject(dependency);
+            }
+        }
+
+        class Qualified implements Node {
+            @Inject
+            public Qualified(@Named("q0") Dependency q0, @Named("q1") Dependency q1,
+                             @Named("q2") Dependency q2, @Named("q3") Dependency q3) {
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.lang.reflect.ParameterizedType;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -162,6 +163,18 @@ public class InjectionTest {
             static class SubclassWithFieldInjection extends ComponentWithFieldInjection {
             }
 
+            static class StaticFieldInjection {
+                @Inject
+                static Dependency dependency;
+            }
+
+            @Test
+            public void should_inject_dependency_via_static_field() {
+                StaticFieldInjection.dependency = null;
+                new InjectionProvider<>(StaticFieldInjection.class).get(context);
+                assertSame(dependency, StaticFieldInjection.dependency);
+            }
+
             @Test
             public void should_inject_dependency_via_field() {
                 ComponentWithFieldInjection component = new InjectionProvider<>(ComponentWithFieldInjection.class).get(context);
@@ -432,4 +445,184 @@ public class InjectionTest {
 
         }
     }
+
+    @Nested
+    public class LazyInjection {
+        static class LazyInjectConstructor {
+            Dependency dependency;
+
+            @Inject
+            public LazyInjectConstructor(@Lazy Dependency dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        static class LazyInjectField {
+            @Inject
+            @Lazy
+            Dependency dependency;
+        }
+
+        static class LazyClassField {
+            @Inject
+            @Lazy
+            ComponentWithDefaultConstructor dependency;
+        }
+
+        @Test
+        public void should_include_lazy_dependency_from_inject_constructor() {
+            InjectionProvider<LazyInjectConstructor> provider = new InjectionProvider<>(LazyInjectConstructor.class);
+            assertArrayEquals(new ComponentRef[]{ComponentRef.lazy(Dependency.class, null)}, provider.getDependencies().toArray(ComponentRef[]::new));
+        }
+
+        @Test
+        public void should_inject_lazy_dependency_via_field() {
+            Mockito.when((Optional) context.get(eq(ComponentRef.lazy(Dependency.class, null)))).thenReturn(Optional.of(dependency));
+
+            LazyInjectField component = new InjectionProvider<>(LazyInjectField.class).get(context);
+            assertSame(dependency, component.dependency);
+        }
+
+        @Test
+        public void should_throw_exception_if_lazy_dependency_is_not_interface() {
+            assertThrows(IllegalComponentException.class, () -> new InjectionProvider<>(LazyClassField.class));
+        }
+    }
+
+    @Nested
+    public class ConstantInlining {
+        static class ConstantInjection {
+            int timeout;
+            Dependency dependency;
+
+            @Inject
+            public ConstantInjection(@Named("timeout") int timeout) {
+                this.timeout = timeout;
+            }
+
+            @Inject
+            void install(Dependency dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        @Test
+        public void should_inject_inlined_constant_without_asking_context() {
+            InjectionProvider<ConstantInjection> provider = new InjectionProvider<>(ConstantInjection.class)
+                    .inline(Map.of(new Component(int.class, new NamedLiteral("timeout")), 30,
+                            new Component(Dependency.class, null), dependency));
+
+            ConstantInjection component = provider.get(context);
+
+            assertEquals(30, component.timeout);
+            assertSame(dependency, component.dependency);
+            Mockito.reset(context);
+            assertEquals(30, provider.get(context).timeout);
+        }
+
+        @Test
+        public void should_still_include_inlined_constant_in_dependencies() {
+            InjectionProvider<ConstantInjection> provider = new InjectionProvider<>(ConstantInjection.class)
+                    .inline(Map.of(new Component(int.class, new NamedLiteral("timeout")), 30));
+
+            assertArrayEquals(new ComponentRef[]{ComponentRef.of(int.class, new NamedLiteral("timeout")), ComponentRef.of(Dependency.class)},
+                    provider.getDependencies().toArray(ComponentRef[]::new));
+        }
+
+        @Test
+        public void should_keep_provider_if_none_of_its_dependencies_is_constant() {
+            Map<Component, Object> constants = Map.of(new Component(String.class, null), "unrelated");
+            InjectionProvider<ConstantInjection> provider = new InjectionProvider<>(ConstantInjection.class);
+            ContextConfig.Provider<ComponentWithInjectConstructor> constructor = InjectionProvider.of(ComponentWithInjectConstructor.class);
+
+            assertSame(provider, provider.inline(constants));
+            assertSame(constructor, constructor.inline(constants));
+        }
+
+        @Test
+        public void should_unbox_primitive_resolved_from_context() {
+            Mockito.when((Optional) context.get(eq(ComponentRef.of(int.class, new NamedLiteral("timeout"))))).thenReturn(Optional.of(42));
+
+            assertEquals(42, new InjectionProvider<>(ConstantInjection.class).get(context).timeout);
+        }
+    }
+
+    @Nested
+    public class ConstructorOnly {
+        record RecordComponent(Dependency dependency, Provider<Dependency> provider) {
+            @Inject
+            RecordComponent {
+            }
+        }
+
+        static class TimeoutComponent {
+            final int timeout;
+            final Dependency dependency;
+
+            @Inject
+            public TimeoutComponent(@Named("timeout") int timeout, Dependency dependency) {
+                this.timeout = timeout;
+                this.dependency = dependency;
+            }
+        }
+
+        @Test
+        public void should_use_constructor_provider_if_no_members_to_inject() {
+            assertTrue(InjectionProvider.of(ComponentWithInjectConstructor.class) instanceof ConstructorProvider);
+            assertTrue(InjectionProvider.of(ComponentWithDefaultConstructor.class) instanceof ConstructorProvider);
+            assertTrue(InjectionProvider.of(ConstantInlining.ConstantInjection.class) instanceof InjectionProvider);
+        }
+
+        @Test
+        public void should_inject_dependency_via_constructor_provider() {
+            ComponentWithInjectConstructor instance = InjectionProvider.of(ComponentWithInjectConstructor.class).get(context);
+
+            assertEquals(dependency, instance.getDependency());
+        }
+
+        @Test
+        public void should_inject_record_via_canonical_constructor() {
+            ContextConfig.Provider<RecordComponent> provider = InjectionProvider.of(RecordComponent.class);
+            RecordComponent instance = provider.get(context);
+
+            assertTrue(provider instanceof ConstructorProvider);
+            assertSame(dependency, instance.dependency());
+            assertSame(dependencyProvider, instance.provider());
+            assertArrayEquals(new ComponentRef[]{ComponentRef.of(Dependency.class), ComponentRef.of(dependencyProviderType)},
+                    provider.getDependencies().toArray(ComponentRef[]::new));
+        }
+
+        @Test
+        public void should_inline_constants_into_constructor_provider() {
+            ContextConfig.Provider<TimeoutComponent> provider = InjectionProvider.of(TimeoutComponent.class)
+                    .inline(Map.of(new Component(int.class, new NamedLiteral("timeout")), 30));
+
+            TimeoutComponent instance = provider.get(context);
+
+            assertEquals(30, instance.timeout);
+            assertSame(dependency, instance.dependency);
+            Mockito.reset(context);
+            Mockito.when((Optional) context.get(eq(ComponentRef.of(Dependency.class)))).thenReturn(Optional.of(dependency));
+            assertEquals(30, provider.get(context).timeout);
+        }
+
+        @Test
+        public void should_unbox_primitive_resolved_by_constructor_provider() {
+            Mockito.when((Optional) context.get(eq(ComponentRef.of(int.class, new NamedLiteral("timeout"))))).thenReturn(Optional.of(42));
+
+            assertEquals(42, InjectionProvider.of(TimeoutComponent.class).get(context).timeout);
+        }
+
+        static class FailingComponent {
+            @Inject
+            public FailingComponent(Dependency dependency) {
+                throw new IllegalStateException();
+            }
+        }
+
+        @Test
+        public void should_propagate_exception_thrown_by_constructor() {
+            assertThrows(IllegalStateException.class, () -> InjectionProvider.of(FailingComponent.class).get(context));
+        }
+    }
 }
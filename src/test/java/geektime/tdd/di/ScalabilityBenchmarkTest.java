@@ -0,0 +1,144 @@
+package geektime.tdd.di;
+
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScalabilityBenchmarkTest {
+    static final int[] SIZES = Arrays.stream(System.getProperty("benchmark.sizes", "100,1000,10000,100000").split(","))
+            .mapToInt(size -> Integer.parseInt(size.trim())).toArray();
+    static final long STEADY_STATE_NANOS = 100_000_000L;
+
+    static Stream<GraphGenerator> shapes() {
+        return Arrays.stream(GraphGenerator.values());
+    }
+
+    @ParameterizedTest
+    @MethodSource("shapes")
+    public void should_resolve_every_root_of_generated_graph(GraphGenerator shape) {
+        ContextConfig config = new ContextConfig();
+        List<ComponentRef<?>> roots = shape.generate(config, 1000);
+        Context context = config.getContext();
+
+        assertFalse(roots.isEmpty());
+        for (ComponentRef<?> root : roots) assertTrue(context.get(root).isPresent());
+    }
+
+    @Test
+    public void should_detect_cycle_closed_without_provider() {
+        ContextConfig config = new ContextConfig();
+        for (int i = 0; i < 100; i++)
+            config.bind(GraphGenerator.node(i), new GraphGenerator.Node.Synthetic(GraphGenerator.ref((i + 1) % 100)));
+
+        assertThrows(CyclicDependenciesFound.class, () -> config.getContext());
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void should_report_cost_curves() {
+        System.out.printf("%-15s %8s %12s %12s %12s %12s%n", "shape", "size", "bind ms", "context ms", "first us", "steady ns");
+        for (GraphGenerator shape : GraphGenerator.values())
+            for (int size : SIZES) {
+                ContextConfig config = new ContextConfig();
+                long start = System.nanoTime();
+                List<ComponentRef<?>> roots = shape.generate(config, size);
+                long bind = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                Context context = config.getContext();
+                long build = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (ComponentRef<?> root : roots) context.get(root);
+                long first = System.nanoTime() - start;
+
+                long gets = 0;
+                start = System.nanoTime();
+                do {
+                    for (ComponentRef<?> root : roots) context.get(root);
+                    gets += roots.size();
+                } while (System.nanoTime() - start < STEADY_STATE_NANOS);
+                long steady = System.nanoTime() - start;
+
+                System.out.printf("%-15s %8d %12.2f %12.2f %12.2f %12.0f%n", shape, size,
+                        bind / 1e6, build / 1e6, first / 1e3 / roots.size(), (double) steady / gets);
+            }
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void should_report_accessor_cost_against_lookup() {
+        ContextConfig config = new ContextConfig();
+        GraphGenerator.DIAMOND.generate(config, 10_000);
+        Context context = config.getContext();
+        ComponentRef<GraphGenerator.Node> ref = GraphGenerator.ref(3);
+        Accessor<GraphGenerator.Node> accessor = context.accessor(ref);
+
+        for (int round = 0; round < 3; round++) {
+            long lookup = measure(() -> context.get(ComponentRef.of(GraphGenerator.Node.class, new NamedLiteral("n3"))).get());
+            long resolved = measure(() -> context.get(ref).get());
+            long accessed = measure(accessor::get);
+            System.out.printf("lookup %6d ns  pre-built ref %6d ns  accessor %6d ns%n", lookup, resolved, accessed);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void should_report_generic_key_lookup_cost_against_class_key() {
+        ContextConfig config = new ContextConfig();
+        ComponentRef<Map<String, List<Set<Integer>>>> generic = new ComponentRef<>() {
+        };
+        ComponentRef<Dependency> plain = ComponentRef.of(Dependency.class);
+        config.bind(generic, Map.of());
+        config.bind(Dependency.class, new Dependency() {
+        });
+        Context context = config.getContext();
+
+        for (int round = 0; round < 3; round++)
+            System.out.printf("class key %6d ns  generic key %6d ns%n",
+                    measure(() -> context.get(plain).get()), measure(() -> context.get(generic).get()));
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void should_report_constructor_only_cost_against_general_path() {
+        ContextConfig config = new ContextConfig();
+        config.bind(Dependency.class, new Dependency() {
+        });
+        config.bind(new Component(GraphGenerator.Node.class, null), new GraphGenerator.Node.Synthetic());
+        Context context = config.getContext();
+        ContextConfig.Provider<ConstructorOnly> general = new InjectionProvider<>(ConstructorOnly.class);
+        ContextConfig.Provider<ConstructorOnly> fast = InjectionProvider.of(ConstructorOnly.class);
+
+        assertTrue(fast instanceof ConstructorProvider);
+        for (int round = 0; round < 3; round++)
+            System.out.printf("general %6d ns  constructor-only %6d ns%n",
+                    measure(() -> general.get(context)), measure(() -> fast.get(context)));
+    }
+
+    record ConstructorOnly(Dependency dependency, GraphGenerator.Node node) {
+        @Inject
+        ConstructorOnly {
+        }
+    }
+
+    private static long measure(Runnable get) {
+        long gets = 0;
+        long start = System.nanoTime();
+        do {
+            for (int i = 0; i < 1000; i++) get.run();
+            gets += 1000;
+        } while (System.nanoTime() - start < STEADY_STATE_NANOS);
+        return (System.nanoTime() - start) / gets;
+    }
+}